@@ -0,0 +1,173 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+// Parallel grade report over a "name,score" file of any size: the file is cut into line-aligned
+// chunks, each chunk is memory-mapped and scanned on the common fork-join pool into its own
+// GradeStats, and the per-chunk results are merged. Only the score after the last comma is
+// parsed; names are never turned into Strings.
+//
+// Usage: java GradeAnalytics <students.csv>
+//        java GradeAnalytics --generate <rows> <students.csv>   (synthetic cohort for load tests)
+public class GradeAnalytics {
+    private static final int MIN_CHUNK = 1 << 20;
+    private static final int MAX_CHUNK = 1 << 28;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 3 && args[0].equals("--generate")) {
+            long rows = Long.parseLong(args[1]);
+            generate(Paths.get(args[2]), rows);
+            System.out.println("Wrote " + rows + " students to " + args[2]);
+            return;
+        }
+        if (args.length != 1) {
+            System.out.println("Usage: java GradeAnalytics <students.csv> | --generate <rows> <students.csv>");
+            return;
+        }
+        long t0 = System.nanoTime();
+        GradeStats stats = analyze(Paths.get(args[0]));
+        long nanos = System.nanoTime() - t0;
+        System.out.print(stats.report());
+        System.out.printf("Analyzed in %.1f ms (%d rows/sec)%n", nanos / 1e6,
+                (long) (stats.getCount() * 1e9 / Math.max(1, nanos)));
+    }
+
+    public static GradeStats analyze(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long[] bounds = chunkBounds(ch);
+            try {
+                return IntStream.range(0, bounds.length - 1).parallel()
+                        .mapToObj(i -> analyzeChunk(ch, bounds[i], bounds[i + 1], i == 0))
+                        .reduce(GradeStats::merge).orElseGet(GradeStats::new);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    // the in-memory cohort, split across the same pool
+    public static GradeStats analyze(GradeBook book) {
+        double[] scores = new double[book.size()];
+        int i = 0;
+        for (Student s : book.students()) scores[i++] = s.score;
+        return Arrays.stream(scores).parallel().collect(GradeStats::new, GradeStats::accept, GradeStats::merge);
+    }
+
+    // cut points sit just after a '\n' so every chunk holds whole lines
+    private static long[] chunkBounds(FileChannel ch) throws IOException {
+        long size = ch.size();
+        long chunk = Math.max(MIN_CHUNK, Math.min(MAX_CHUNK, size / (Runtime.getRuntime().availableProcessors() * 4L) + 1));
+        List<Long> cuts = new ArrayList<>();
+        cuts.add(0L);
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        long pos = chunk;
+        while (pos < size) {
+            long nl = -1;
+            for (long p = pos; nl < 0 && p < size; ) {
+                probe.clear();
+                int n = ch.read(probe, p);
+                if (n <= 0) break;
+                for (int i = 0; i < n && nl < 0; i++) if (probe.get(i) == '\n') nl = p + i;
+                p += n;
+            }
+            if (nl < 0) break;
+            cuts.add(nl + 1);
+            pos = nl + 1 + chunk;
+        }
+        if (cuts.get(cuts.size() - 1) < size) cuts.add(size);
+        long[] bounds = new long[cuts.size()];
+        for (int i = 0; i < bounds.length; i++) bounds[i] = cuts.get(i);
+        return bounds;
+    }
+
+    private static GradeStats analyzeChunk(FileChannel ch, long start, long end, boolean first) {
+        MappedByteBuffer buf;
+        try {
+            buf = ch.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        GradeStats stats = new GradeStats();
+        int limit = buf.limit();
+        int lineStart = 0;
+        int lastComma = -1;
+        for (int i = 0; i <= limit; i++) {
+            byte b = i < limit ? buf.get(i) : (byte) '\n';
+            if (b == ',') lastComma = i;
+            if (b != '\n') continue;
+            int lineEnd = i > lineStart && buf.get(i - 1) == '\r' ? i - 1 : i;
+            if (lineEnd > lineStart) {
+                double score = lastComma < lineStart ? Double.NaN : parseScore(buf, lastComma + 1, lineEnd);
+                if (Double.isFinite(score)) stats.accept(score);
+                else if (!(first && lineStart == 0 && isHeader(buf, lineStart, lineEnd))) stats.skip();
+            }
+            lineStart = i + 1;
+        }
+        return stats;
+    }
+
+    // plain decimals like "87", "-3.25", " 91.5 " are parsed in place; anything else goes to Double.parseDouble
+    static double parseScore(ByteBuffer buf, int from, int to) {
+        while (from < to && buf.get(from) == ' ') from++;
+        while (to > from && buf.get(to - 1) == ' ') to--;
+        if (from == to) return Double.NaN;
+        int i = from;
+        boolean negative = buf.get(i) == '-';
+        if (negative || buf.get(i) == '+') i++;
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean dot = false;
+        for (; i < to; i++) {
+            byte c = buf.get(i);
+            if (c == '.' && !dot) {
+                dot = true;
+            } else if (c >= '0' && c <= '9' && digits < 15) {
+                mantissa = mantissa * 10 + (c - '0');
+                digits++;
+                if (dot) scale++;
+            } else {
+                return slowParse(buf, from, to);
+            }
+        }
+        if (digits == 0) return Double.NaN;
+        double v = mantissa / POW10[scale];
+        return negative ? -v : v;
+    }
+
+    private static final double[] POW10 = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15};
+
+    private static double slowParse(ByteBuffer buf, int from, int to) {
+        byte[] bytes = new byte[to - from];
+        for (int i = 0; i < bytes.length; i++) bytes[i] = buf.get(from + i);
+        try {
+            return Double.parseDouble(new String(bytes, StandardCharsets.UTF_8));
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    // only ever asked about the first line of the file
+    private static boolean isHeader(ByteBuffer buf, int from, int to) {
+        byte[] bytes = new byte[to - from];
+        for (int i = 0; i < bytes.length; i++) bytes[i] = buf.get(from + i);
+        return GradeStore.isHeader(new String(bytes, StandardCharsets.UTF_8));
+    }
+
+    static void generate(Path file, long rows) throws IOException {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("name,score\n");
+            for (long i = 0; i < rows; i++) {
+                double score = Math.max(0, Math.min(100, Math.round((72 + rnd.nextGaussian() * 12) * 10) / 10.0));
+                out.write("Student " + Long.toString(i, 36) + "," + score + "\n");
+            }
+        }
+    }
+}
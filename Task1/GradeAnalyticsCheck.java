@@ -0,0 +1,95 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+// Generates a cohort file, runs GradeAnalytics on it and compares every statistic with a
+// sort-based reference that reads the same file line by line. A few hand-written lines are
+// appended so names with commas, two-decimal scores and unreadable lines are covered too.
+// Exits non-zero on the first disagreement.
+// Usage: java GradeAnalyticsCheck [rows]
+public class GradeAnalyticsCheck {
+    public static void main(String[] args) throws IOException {
+        long rows = args.length > 0 ? Long.parseLong(args[0]) : 5_000_000;
+
+        Path file = Files.createTempFile("grade-check", ".csv");
+        try {
+            GradeAnalytics.generate(file, rows);
+            try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.APPEND)) {
+                out.write("Doe, Jane,88.25\n");
+                out.write("O'Neil, Pat, Jr.,59.99\n");
+                out.write("Max,100\n");
+                out.write("Zero,0\n");
+                out.write("no score here\n");
+                out.write("Bad,eighty\n");
+            }
+
+            long t0 = System.nanoTime();
+            GradeStats stats = GradeAnalytics.analyze(file);
+            long nanos = System.nanoTime() - t0;
+            System.out.printf("Analyzed %d rows in %.1f ms (%d rows/sec)%n", stats.getCount(), nanos / 1e6,
+                    (long) (stats.getCount() * 1e9 / Math.max(1, nanos)));
+
+            String problem = compare(stats, file);
+            if (problem != null) {
+                System.out.println("Mismatch: " + problem);
+                System.exit(1);
+            }
+            System.out.println("All statistics matched the sort-based reference.");
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    // null if `stats` agrees with a straightforward pass over the file, else what differs
+    private static String compare(GradeStats stats, Path file) throws IOException {
+        double[] scores = new double[16];
+        int n = 0;
+        long skipped = 0;
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            in.readLine(); // header
+            for (String line; (line = in.readLine()) != null; ) {
+                int comma = line.lastIndexOf(',');
+                try {
+                    if (comma < 0) throw new NumberFormatException(line);
+                    double score = Double.parseDouble(line.substring(comma + 1).trim());
+                    if (n == scores.length) scores = Arrays.copyOf(scores, n * 2);
+                    scores[n++] = score;
+                } catch (NumberFormatException e) {
+                    skipped++;
+                }
+            }
+        }
+        if (stats.getCount() != n) return "count " + stats.getCount() + " != " + n;
+        if (stats.getSkipped() != skipped) return "skipped " + stats.getSkipped() + " != " + skipped;
+
+        double sum = 0;
+        long[] bands = new long[GradeStats.BANDS.length];
+        for (int i = 0; i < n; i++) {
+            sum += scores[i];
+            bands[GradeStats.band(scores[i])]++;
+        }
+        double mean = sum / n;
+        double squares = 0;
+        for (int i = 0; i < n; i++) squares += (scores[i] - mean) * (scores[i] - mean);
+        double stdDev = Math.sqrt(squares / n);
+        if (Math.abs(stats.getMean() - mean) > 1e-9 * Math.max(1, Math.abs(mean))) {
+            return "mean " + stats.getMean() + " != " + mean;
+        }
+        if (Math.abs(stats.getStdDev() - stdDev) > 1e-9 * Math.max(1, stdDev)) {
+            return "std deviation " + stats.getStdDev() + " != " + stdDev;
+        }
+        for (int i = 0; i < bands.length; i++) {
+            if (stats.getBand(i) != bands[i]) return "band " + GradeStats.BANDS[i] + " " + stats.getBand(i) + " != " + bands[i];
+        }
+
+        Arrays.sort(scores, 0, n);
+        if (stats.getMin() != scores[0]) return "min " + stats.getMin() + " != " + scores[0];
+        if (stats.getMax() != scores[n - 1]) return "max " + stats.getMax() + " != " + scores[n - 1];
+        for (int p = 1; p <= 100; p++) {
+            double expected = scores[(int) Math.max(1, Math.ceil(p / 100.0 * n)) - 1];
+            if (stats.percentile(p) != expected) return "p" + p + " " + stats.percentile(p) + " != " + expected;
+        }
+        return null;
+    }
+}
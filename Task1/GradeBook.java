@@ -0,0 +1,244 @@
+import java.util.*;
+
+// Student scores with statistics kept up to date on every change, so the summary does not
+// walk the cohort:
+//   - average from a running (compensated) sum and count: O(1)
+//   - highest / lowest cached, refreshed from the score tree only when one is removed: O(1) reads
+//   - median / percentiles from a treap keyed by score that tracks subtree sizes: O(log n)
+//   - name lookups through a hash index on the case-folded name, matching equalsIgnoreCase
+// Students keep their insertion order for listing.
+public class GradeBook {
+    private final Set<Student> students = new LinkedHashSet<>();
+    private final Map<String, List<Student>> byName = new HashMap<>();
+    private final Random random = new Random();
+    private Node root;
+
+    private double sum;
+    private double sumError;
+    private Student highest;
+    private Student lowest;
+
+    // one distinct score; students holds everyone with it, in the order they got it
+    private static class Node {
+        final double score;
+        final int priority;
+        final LinkedHashSet<Student> students = new LinkedHashSet<>();
+        Node left, right;
+        int size; // students in this subtree
+
+        Node(double score, int priority) {
+            this.score = score;
+            this.priority = priority;
+        }
+    }
+
+    public int size() {
+        return students.size();
+    }
+
+    public boolean isEmpty() {
+        return students.isEmpty();
+    }
+
+    // insertion order
+    public Iterable<Student> students() {
+        return Collections.unmodifiableSet(students);
+    }
+
+    public Student add(String name, double score) {
+        Student s = new Student(name, score);
+        students.add(s);
+        byName.computeIfAbsent(foldCase(name), k -> new ArrayList<>()).add(s);
+        track(s);
+        return s;
+    }
+
+    // first student added under this name, ignoring case; null if none
+    public Student find(String name) {
+        List<Student> matches = byName.get(foldCase(name));
+        return matches == null ? null : matches.get(0);
+    }
+
+    public void modify(Student s, String newName, double newScore) {
+        if (!students.contains(s)) return;
+        if (!foldCase(s.name).equals(foldCase(newName))) {
+            unindexName(s);
+            byName.computeIfAbsent(foldCase(newName), k -> new ArrayList<>()).add(s);
+        }
+        s.name = newName;
+        if (Double.compare(s.score, newScore) != 0) {
+            untrack(s);
+            s.score = newScore;
+            track(s);
+        }
+    }
+
+    public void remove(Student s) {
+        if (!students.remove(s)) return;
+        unindexName(s);
+        untrack(s);
+    }
+
+    public double average() {
+        return students.isEmpty() ? 0 : (sum + sumError) / students.size();
+    }
+
+    public Student highest() {
+        return highest;
+    }
+
+    public Student lowest() {
+        return lowest;
+    }
+
+    // nearest-rank percentile, 0 < p <= 100
+    public double percentile(double p) {
+        if (students.isEmpty()) throw new IllegalStateException("No students");
+        int rank = (int) Math.ceil(p / 100 * students.size());
+        return kth(Math.max(1, Math.min(students.size(), rank)));
+    }
+
+    public double median() {
+        int n = students.size();
+        if (n == 0) throw new IllegalStateException("No students");
+        if (n % 2 == 1) return kth(n / 2 + 1);
+        return (kth(n / 2) + kth(n / 2 + 1)) / 2;
+    }
+
+    private void track(Student s) {
+        addToSum(s.score);
+        root = insert(root, s);
+        if (highest == null || s.score > highest.score) highest = s;
+        if (lowest == null || s.score < lowest.score) lowest = s;
+    }
+
+    private void untrack(Student s) {
+        addToSum(-s.score);
+        root = delete(root, s);
+        if (root == null) {
+            sum = 0;
+            sumError = 0;
+        }
+        if (s == highest) highest = root == null ? null : last(root).students.iterator().next();
+        if (s == lowest) lowest = root == null ? null : first(root).students.iterator().next();
+    }
+
+    // Kahan-Babuska summation keeps the running sum from drifting over many adds and removes
+    private void addToSum(double x) {
+        double t = sum + x;
+        if (Math.abs(sum) >= Math.abs(x)) sumError += (sum - t) + x;
+        else sumError += (x - t) + sum;
+        sum = t;
+    }
+
+    private void unindexName(Student s) {
+        String key = foldCase(s.name);
+        List<Student> matches = byName.get(key);
+        if (matches == null) return;
+        matches.remove(s);
+        if (matches.isEmpty()) byName.remove(key);
+    }
+
+    // the same per-character folding String.equalsIgnoreCase applies
+    static String foldCase(String s) {
+        char[] c = s.toCharArray();
+        for (int i = 0; i < c.length; i++) c[i] = Character.toLowerCase(Character.toUpperCase(c[i]));
+        return new String(c);
+    }
+
+    // k-th smallest score, 1-based
+    private double kth(int k) {
+        Node n = root;
+        while (true) {
+            int left = size(n.left);
+            if (k <= left) {
+                n = n.left;
+            } else if (k <= left + n.students.size()) {
+                return n.score;
+            } else {
+                k -= left + n.students.size();
+                n = n.right;
+            }
+        }
+    }
+
+    private Node insert(Node n, Student s) {
+        if (n == null) {
+            n = new Node(s.score, random.nextInt());
+            n.students.add(s);
+            n.size = 1;
+            return n;
+        }
+        int c = Double.compare(s.score, n.score);
+        if (c == 0) {
+            n.students.add(s);
+        } else if (c < 0) {
+            n.left = insert(n.left, s);
+            if (n.left.priority > n.priority) n = rotateRight(n);
+        } else {
+            n.right = insert(n.right, s);
+            if (n.right.priority > n.priority) n = rotateLeft(n);
+        }
+        n.size = size(n.left) + n.students.size() + size(n.right);
+        return n;
+    }
+
+    private Node delete(Node n, Student s) {
+        if (n == null) return null;
+        int c = Double.compare(s.score, n.score);
+        if (c < 0) {
+            n.left = delete(n.left, s);
+        } else if (c > 0) {
+            n.right = delete(n.right, s);
+        } else {
+            n.students.remove(s);
+            if (n.students.isEmpty()) return merge(n.left, n.right);
+        }
+        n.size = size(n.left) + n.students.size() + size(n.right);
+        return n;
+    }
+
+    // every key in a is below every key in b
+    private Node merge(Node a, Node b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            a.size = size(a.left) + a.students.size() + size(a.right);
+            return a;
+        }
+        b.left = merge(a, b.left);
+        b.size = size(b.left) + b.students.size() + size(b.right);
+        return b;
+    }
+
+    private static Node rotateRight(Node n) {
+        Node l = n.left;
+        n.left = l.right;
+        l.right = n;
+        n.size = size(n.left) + n.students.size() + size(n.right);
+        return l;
+    }
+
+    private static Node rotateLeft(Node n) {
+        Node r = n.right;
+        n.right = r.left;
+        r.left = n;
+        n.size = size(n.left) + n.students.size() + size(n.right);
+        return r;
+    }
+
+    private static Node first(Node n) {
+        while (n.left != null) n = n.left;
+        return n;
+    }
+
+    private static Node last(Node n) {
+        while (n.right != null) n = n.right;
+        return n;
+    }
+
+    private static int size(Node n) {
+        return n == null ? 0 : n.size;
+    }
+}
@@ -0,0 +1,93 @@
+import java.util.*;
+
+// Drives a GradeBook with random adds, modifies and removes and, every few hundred operations,
+// recomputes count, average, highest, lowest, median, percentiles and name lookup from a plain
+// list. Exits non-zero on the first disagreement.
+// Usage: java GradeBookCheck [operations] [seed]
+public class GradeBookCheck {
+    public static void main(String[] args) {
+        int operations = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 1;
+
+        Random rnd = new Random(seed);
+        GradeBook book = new GradeBook();
+        List<Student> reference = new ArrayList<>();
+        // students in the order they took their current name: a rename counts as a new add
+        List<Student> byNameOrder = new ArrayList<>();
+        int checks = 0;
+        long t0 = System.nanoTime();
+        for (int op = 0; op < operations; op++) {
+            int kind = rnd.nextInt(10);
+            if (kind < 5 || reference.isEmpty()) {
+                // quarter-point scores make ties and two-decimal sums common
+                Student s = book.add(name(rnd), rnd.nextInt(101) + rnd.nextInt(4) * 0.25);
+                reference.add(s);
+                byNameOrder.add(s);
+            } else if (kind < 8) {
+                Student s = reference.get(rnd.nextInt(reference.size()));
+                String newName = name(rnd);
+                if (!s.name.equalsIgnoreCase(newName)) {
+                    byNameOrder.remove(s);
+                    byNameOrder.add(s);
+                }
+                book.modify(s, newName, rnd.nextInt(101));
+            } else {
+                Student s = book.find(name(rnd));
+                if (s != null) {
+                    book.remove(s);
+                    reference.remove(s);
+                    byNameOrder.remove(s);
+                }
+            }
+            if (op % 997 == 0 && !reference.isEmpty()) {
+                String problem = compare(book, reference, byNameOrder, name(rnd));
+                if (problem != null) {
+                    System.out.println("Mismatch after " + (op + 1) + " operations: " + problem);
+                    System.exit(1);
+                }
+                checks++;
+            }
+        }
+        long nanos = System.nanoTime() - t0;
+        System.out.println("Operations: " + operations + ", students left: " + book.size() + ", checks: " + checks);
+        System.out.println("Time: " + nanos / 1_000_000 + " ms");
+        System.out.println("All statistics matched the recomputation.");
+    }
+
+    // names differ in case on purpose, so lookups go through the case-folded index
+    private static String name(Random rnd) {
+        return (rnd.nextBoolean() ? "N" : "n") + rnd.nextInt(500);
+    }
+
+    // null if the book agrees with a recomputation over `reference`, else what differs
+    private static String compare(GradeBook book, List<Student> reference, List<Student> byNameOrder, String probe) {
+        double[] sorted = new double[reference.size()];
+        double sum = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = reference.get(i).score;
+            sum += sorted[i];
+        }
+        Arrays.sort(sorted);
+        int n = sorted.length;
+        if (book.size() != n) return "size " + book.size() + " != " + n;
+        if (Math.abs(book.average() - sum / n) > 1e-9) return "average " + book.average() + " != " + sum / n;
+        if (book.lowest().score != sorted[0]) return "lowest " + book.lowest().score + " != " + sorted[0];
+        if (book.highest().score != sorted[n - 1]) return "highest " + book.highest().score + " != " + sorted[n - 1];
+        double median = n % 2 == 1 ? sorted[n / 2] : (sorted[n / 2 - 1] + sorted[n / 2]) / 2;
+        if (book.median() != median) return "median " + book.median() + " != " + median;
+        for (int p : new int[]{1, 10, 25, 50, 75, 90, 99, 100}) {
+            double expected = sorted[Math.max(1, (int) Math.ceil(p / 100.0 * n)) - 1];
+            if (book.percentile(p) != expected) return "p" + p + " " + book.percentile(p) + " != " + expected;
+        }
+        // the first student to take a name wins
+        Student first = null;
+        for (Student s : byNameOrder) {
+            if (s.name.equalsIgnoreCase(probe)) {
+                first = s;
+                break;
+            }
+        }
+        if (book.find(probe) != first) return "find(" + probe + ")";
+        return null;
+    }
+}
@@ -0,0 +1,110 @@
+// One-pass, mergeable grade statistics: each chunk of input fills its own GradeStats and the
+// chunks are merged at the end, so the work splits across threads with no shared state.
+//   - mean and standard deviation: Welford's running mean / M2, merged with Chan's formula
+//   - grade bands: A >= 90, B >= 80, C >= 70, D >= 60, F below
+//   - percentiles: a 0.01-wide histogram over [0, 100]; exact for scores with at most two
+//     decimals, scores outside that range are reported as the observed min / max
+public class GradeStats {
+    public static final String[] BANDS = {"A (90-100)", "B (80-89)", "C (70-79)", "D (60-69)", "F (0-59)"};
+    private static final int BINS = 10_001;
+
+    private long count;
+    private double mean;
+    private double m2;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private final long[] bands = new long[BANDS.length];
+    private final long[] bins = new long[BINS];
+    private long below;
+    private long above;
+    private long skipped;
+
+    public void accept(double score) {
+        count++;
+        double delta = score - mean;
+        mean += delta / count;
+        m2 += delta * (score - mean);
+        if (score < min) min = score;
+        if (score > max) max = score;
+        bands[band(score)]++;
+        if (score < 0) below++;
+        else if (score > 100) above++;
+        else bins[(int) Math.round(score * 100)]++;
+    }
+
+    // a line that could not be read as a score
+    public void skip() {
+        skipped++;
+    }
+
+    public GradeStats merge(GradeStats o) {
+        if (o.count > 0) {
+            long n = count + o.count;
+            double delta = o.mean - mean;
+            mean += delta * o.count / n;
+            m2 += o.m2 + delta * delta * ((double) count * o.count / n);
+            count = n;
+            min = Math.min(min, o.min);
+            max = Math.max(max, o.max);
+            for (int i = 0; i < bands.length; i++) bands[i] += o.bands[i];
+            for (int i = 0; i < BINS; i++) bins[i] += o.bins[i];
+            below += o.below;
+            above += o.above;
+        }
+        skipped += o.skipped;
+        return this;
+    }
+
+    public long getCount() { return count; }
+    public long getSkipped() { return skipped; }
+    public double getMean() { return count == 0 ? 0 : mean; }
+    public double getMin() { return min; }
+    public double getMax() { return max; }
+    public long getBand(int i) { return bands[i]; }
+
+    // population standard deviation
+    public double getStdDev() {
+        return count == 0 ? 0 : Math.sqrt(m2 / count);
+    }
+
+    // nearest-rank percentile, 0 < p <= 100; scores with more than two decimals were counted in
+    // the bin of the nearest 0.01, so the result is that rounded score, not the score itself
+    public double percentile(double p) {
+        if (count == 0) return 0;
+        long rank = Math.max(1, Math.min(count, (long) Math.ceil(p / 100 * count)));
+        if (rank <= below) return min;
+        long seen = below;
+        for (int i = 0; i < BINS; i++) {
+            seen += bins[i];
+            if (seen >= rank) return i / 100.0;
+        }
+        return max;
+    }
+
+    static int band(double score) {
+        if (score >= 90) return 0;
+        if (score >= 80) return 1;
+        if (score >= 70) return 2;
+        if (score >= 60) return 3;
+        return 4;
+    }
+
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Students      : ").append(count).append('\n');
+        if (skipped > 0) sb.append("Skipped lines : ").append(skipped).append('\n');
+        if (count == 0) return sb.toString();
+        sb.append(String.format("Mean          : %.2f%n", getMean()));
+        sb.append(String.format("Std deviation : %.2f%n", getStdDev()));
+        sb.append(String.format("Min / Max     : %.2f / %.2f%n", min, max));
+        sb.append(String.format("P25 / P50 / P75 / P90 / P99 : %.2f / %.2f / %.2f / %.2f / %.2f%n",
+                percentile(25), percentile(50), percentile(75), percentile(90), percentile(99)));
+        sb.append("Grade bands:\n");
+        for (int i = 0; i < BANDS.length; i++) {
+            int bar = (int) (bands[i] * 40 / count);
+            sb.append(String.format("  %-10s %10d  %5.1f%%  %s%n", BANDS[i], bands[i], bands[i] * 100.0 / count,
+                    "#".repeat(bar)));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,77 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+
+// Students on disk as "name,score" lines. The score is whatever follows the last comma, so
+// names may contain commas; a "name,score" header line is allowed. Files are streamed line by
+// line, and saves go to a temporary file that then replaces the old one.
+public class GradeStore {
+    public static final String STUDENTS_FILE = "students.csv";
+
+    // rows added and lines skipped by one import
+    public static class ImportResult {
+        public final long rows;
+        public final long skipped;
+        public final long nanos;
+
+        ImportResult(long rows, long skipped, long nanos) {
+            this.rows = rows;
+            this.skipped = skipped;
+            this.nanos = nanos;
+        }
+
+        public long rowsPerSecond() {
+            return nanos == 0 ? rows : (long) (rows * 1_000_000_000.0 / nanos);
+        }
+    }
+
+    // the optional first line of a grade file; GradeAnalytics applies the same rule
+    static boolean isHeader(String line) {
+        return line.trim().equalsIgnoreCase("name,score");
+    }
+
+    // adds every student in the file to the book
+    public static ImportResult importCsv(Path file, GradeBook book) throws IOException {
+        long t0 = System.nanoTime();
+        long rows = 0;
+        long skipped = 0;
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            boolean first = true;
+            while ((line = in.readLine()) != null) {
+                boolean header = first && isHeader(line);
+                first = false;
+                if (header || line.trim().isEmpty()) continue;
+                int comma = line.lastIndexOf(',');
+                double score;
+                try {
+                    score = comma < 0 ? Double.NaN : Double.parseDouble(line.substring(comma + 1).trim());
+                } catch (NumberFormatException e) {
+                    score = Double.NaN;
+                }
+                if (!Double.isFinite(score)) {
+                    skipped++;
+                    continue;
+                }
+                book.add(line.substring(0, comma).trim(), score);
+                rows++;
+            }
+        }
+        return new ImportResult(rows, skipped, System.nanoTime() - t0);
+    }
+
+    public static void save(GradeBook book, Path file) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (BufferedWriter out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            out.write("name,score");
+            out.newLine();
+            for (Student s : book.students()) {
+                out.write(s.name);
+                out.write(',');
+                out.write(Double.toString(s.score));
+                out.newLine();
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
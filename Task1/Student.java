@@ -0,0 +1,9 @@
+class Student {
+    String name;
+    double score;
+
+    Student(String name, double score) {
+        this.name = name;
+        this.score = score;
+    }
+}
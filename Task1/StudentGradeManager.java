@@ -1,20 +1,20 @@
-import java.util.ArrayList;
+import java.io.IOException;
+import java.nio.file.*;
 import java.util.Scanner;
 
-class Student {
-    String name;
-    double score;
-
-    Student(String name, double score) {
-        this.name = name;
-        this.score = score;
-    }
-}
-
 public class StudentGradeManager{
     public static void main(String[] args) {
-        ArrayList<Student> students = new ArrayList<>();
+        GradeBook students = new GradeBook();
         Scanner sc = new Scanner(System.in);
+        Path dataFile = Paths.get(GradeStore.STUDENTS_FILE);
+        if (Files.exists(dataFile)) {
+            try {
+                GradeStore.ImportResult r = GradeStore.importCsv(dataFile, students);
+                System.out.println("Loaded " + r.rows + " students.");
+            } catch (IOException e) {
+                System.out.println("Failed to read students file: " + e.getMessage());
+            }
+        }
 
         while (true) {
             System.out.println("\n===== STUDENT GRADE =====");
@@ -22,7 +22,10 @@ public class StudentGradeManager{
             System.out.println("2. Modify Student");
             System.out.println("3. Delete Student");
             System.out.println("4. Display Summary Report");
-            System.out.println("5. Exit");
+            System.out.println("5. Score at Percentile");
+            System.out.println("6. Import Students from CSV");
+            System.out.println("7. Analytics Report");
+            System.out.println("8. Save & Exit");
             System.out.print("Choose an option: ");
             int choice = sc.nextInt();
 
@@ -40,6 +43,21 @@ public class StudentGradeManager{
                     displaySummary(students);
                     break;
                 case 5:
+                    showPercentile(students, sc);
+                    break;
+                case 6:
+                    importStudents(students, sc);
+                    break;
+                case 7:
+                    analyticsReport(students, sc);
+                    break;
+                case 8:
+                    try {
+                        GradeStore.save(students, dataFile);
+                        System.out.println("Saved " + students.size() + " students to " + dataFile + ".");
+                    } catch (IOException e) {
+                        System.out.println("Failed to save students: " + e.getMessage());
+                    }
                     System.out.println("Exiting... Goodbye!");
                     return;
                 default:
@@ -48,19 +66,19 @@ public class StudentGradeManager{
         }
     }
 
-    public static void addStudent(ArrayList<Student> students, Scanner sc) {
+    public static void addStudent(GradeBook students, Scanner sc) {
         sc.nextLine();
         System.out.print("Enter student name: ");
         String name = sc.nextLine();
 
         System.out.print("Enter score: ");
-        double score = sc.nextDouble();
+        double score = readScore(sc);
 
-        students.add(new Student(name, score));
+        students.add(name, score);
         System.out.println("Student added successfully!");
     }
 
-    public static void modifyStudent(ArrayList<Student> students, Scanner sc) {
+    public static void modifyStudent(GradeBook students, Scanner sc) {
         if (students.isEmpty()) {
             System.out.println("No students available to modify!");
             return;
@@ -70,22 +88,22 @@ public class StudentGradeManager{
         System.out.print("Enter name of student to modify: ");
         String nameToModify = sc.nextLine();
 
-        for (Student s : students) {
-            if (s.name.equalsIgnoreCase(nameToModify)) {
-                System.out.print("Enter new name: ");
-                s.name = sc.nextLine();
+        Student s = students.find(nameToModify);
+        if (s == null) {
+            System.out.println("Student not found!");
+            return;
+        }
+        System.out.print("Enter new name: ");
+        String newName = sc.nextLine();
 
-                System.out.print("Enter new score: ");
-                s.score = sc.nextDouble();
+        System.out.print("Enter new score: ");
+        double newScore = readScore(sc);
 
-                System.out.println("Student successfully modified!");
-                return;
-            }
-        }
-        System.out.println("Student not found!");
+        students.modify(s, newName, newScore);
+        System.out.println("Student successfully modified!");
     }
 
-    public static void deleteStudent(ArrayList<Student> students, Scanner sc) {
+    public static void deleteStudent(GradeBook students, Scanner sc) {
         if (students.isEmpty()) {
             System.out.println("No students available to delete!");
             return;
@@ -95,48 +113,89 @@ public class StudentGradeManager{
         System.out.print("Enter name of student to delete: ");
         String nameToDelete = sc.nextLine();
 
-        for (int i = 0; i < students.size(); i++) {
-            if (students.get(i).name.equalsIgnoreCase(nameToDelete)) {
-                students.remove(i);
-                System.out.println("Student deleted successfully!");
-                return;
-            }
+        Student s = students.find(nameToDelete);
+        if (s == null) {
+            System.out.println("Student not found!");
+            return;
         }
-        System.out.println("Student not found!");
+        students.remove(s);
+        System.out.println("Student deleted successfully!");
     }
 
-    public static void displaySummary(ArrayList<Student> students) {
+    public static void displaySummary(GradeBook students) {
         if (students.isEmpty()) {
             System.out.println("\nNo student data available!");
             return;
         }
 
-        double total = 0;
-        double highest = students.get(0).score;
-        double lowest = students.get(0).score;
-        String highestName = students.get(0).name;
-        String lowestName = students.get(0).name;
-
         System.out.println("\n===== STUDENT REPORT =====");
-        for (Student s : students) {
+        for (Student s : students.students()) {
             System.out.println("Name: " + s.name + " | Score: " + s.score);
-            total += s.score;
-
-            if (s.score > highest) {
-                highest = s.score;
-                highestName = s.name;
-            }
-            if (s.score < lowest) {
-                lowest = s.score;
-                lowestName = s.name;
-            }
         }
 
-        double average = total / students.size();
+        Student highest = students.highest();
+        Student lowest = students.lowest();
 
         System.out.println("\n--- Statistics ---");
-        System.out.println("Average Score : " + average);
-        System.out.println("Highest Score : " + highest + " (" + highestName + ")");
-        System.out.println("Lowest Score  : " + lowest + " (" + lowestName + ")");
+        System.out.println("Students      : " + students.size());
+        System.out.println("Average Score : " + students.average());
+        System.out.println("Median Score  : " + students.median());
+        System.out.println("Highest Score : " + highest.score + " (" + highest.name + ")");
+        System.out.println("Lowest Score  : " + lowest.score + " (" + lowest.name + ")");
+    }
+
+    public static void showPercentile(GradeBook students, Scanner sc) {
+        if (students.isEmpty()) {
+            System.out.println("\nNo student data available!");
+            return;
+        }
+
+        System.out.print("Enter percentile (1-100): ");
+        double p = sc.nextDouble();
+        if (p <= 0 || p > 100) {
+            System.out.println("Percentile must be between 1 and 100!");
+            return;
+        }
+        System.out.println(p + "th percentile score: " + students.percentile(p));
+    }
+
+    public static void importStudents(GradeBook students, Scanner sc) {
+        sc.nextLine();
+        System.out.print("Enter CSV file to import (name,score per line): ");
+        String file = sc.nextLine().trim();
+        try {
+            GradeStore.ImportResult r = GradeStore.importCsv(Paths.get(file), students);
+            System.out.println("Imported " + r.rows + " students (" + r.rowsPerSecond() + " rows/sec)" +
+                    (r.skipped > 0 ? ", skipped " + r.skipped + " invalid lines." : "."));
+        } catch (IOException | InvalidPathException e) {
+            System.out.println("Failed to import students: " + e.getMessage());
+        }
+    }
+
+    public static void analyticsReport(GradeBook students, Scanner sc) {
+        sc.nextLine();
+        System.out.print("Enter CSV file to analyze (blank = current students): ");
+        String file = sc.nextLine().trim();
+        long t0 = System.nanoTime();
+        GradeStats stats;
+        try {
+            stats = file.isEmpty() ? GradeAnalytics.analyze(students) : GradeAnalytics.analyze(Paths.get(file));
+        } catch (IOException | InvalidPathException e) {
+            System.out.println("Failed to analyze file: " + e.getMessage());
+            return;
+        }
+        long nanos = System.nanoTime() - t0;
+        System.out.println("\n===== ANALYTICS REPORT =====");
+        System.out.print(stats.report());
+        System.out.printf("Computed in %.1f ms (%d rows/sec)%n", nanos / 1e6, (long) (stats.getCount() * 1e9 / Math.max(1, nanos)));
+    }
+
+    // scores must be real numbers; NaN and infinities would break the statistics
+    private static double readScore(Scanner sc) {
+        while (true) {
+            double score = sc.nextDouble();
+            if (Double.isFinite(score)) return score;
+            System.out.print("Enter a valid score: ");
+        }
     }
 }
@@ -0,0 +1,206 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.*;
+
+// Non-interactive group booking: reads reservation requests from a CSV or JSON file, reserves
+// them against one consistent view of the hotel, charges them in parallel and records the
+// outcome with a single journal commit.
+//
+// CSV  : category,roomId,guestName,guestPhone,checkIn,checkOut   (header line optional, roomId may be empty)
+// JSON : [{"category": "Suite", "roomId": "", "guestName": "...", "guestPhone": "...",
+//          "checkIn": "2026-01-10", "checkOut": "2026-01-12"}, ...]
+//
+// Usage: java BatchBookingImport <requests.csv|requests.json> [--all-or-nothing]
+public class BatchBookingImport {
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.out.println("Usage: java BatchBookingImport <requests.csv|requests.json> [--all-or-nothing]");
+            return;
+        }
+        boolean allOrNothing = args.length > 1 && args[1].equals("--all-or-nothing");
+        List<String> errors = new ArrayList<>();
+        List<BookingRequest> requests = read(Paths.get(args[0]), errors);
+        for (String e : errors) System.out.println("Skipped: " + e);
+
+        BookingEngine engine = new BookingEngine();
+        engine.load();
+        run(engine, requests, allOrNothing);
+        engine.saveBookings();
+    }
+
+    public static void run(BookingEngine engine, List<BookingRequest> requests, boolean allOrNothing)
+            throws InterruptedException {
+        long t0 = System.nanoTime();
+        List<Booking> reserved = engine.reserveBatch(requests, allOrNothing);
+
+        List<Booking> held = new ArrayList<>();
+        for (Booking b : reserved) if (b != null) held.add(b);
+        boolean[] paid = new boolean[held.size()];
+        ExecutorService executor = PaymentPipeline.newPaymentExecutor();
+        try {
+            List<Callable<Boolean>> charges = new ArrayList<>();
+            for (Booking b : held) charges.add(() -> PaymentSimulator.processPayment(b.getBookingId(), b.getTotalPrice()));
+            List<Future<Boolean>> results = executor.invokeAll(charges);
+            for (int i = 0; i < paid.length; i++) {
+                try {
+                    paid[i] = results.get(i).get();
+                } catch (ExecutionException e) {
+                    paid[i] = false;
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+        engine.completePayments(held, paid);
+        long nanos = System.nanoTime() - t0;
+
+        int confirmed = 0;
+        for (boolean p : paid) if (p) confirmed++;
+        for (int i = 0; i < requests.size(); i++) {
+            if (reserved.get(i) == null) {
+                System.out.println("Rejected: " + requests.get(i) +
+                        (allOrNothing ? " (batch rolled back)" : " (no room available)"));
+            }
+        }
+        for (int i = 0; i < held.size(); i++) {
+            Booking b = held.get(i);
+            System.out.println((paid[i] ? "Booked:   " : "Payment failed: ") + b.getBookingId() + " " + b.getRoomId() +
+                    " " + b.getStartDate() + " for " + b.getGuestName());
+        }
+        System.out.println("\n===== BATCH SUMMARY =====");
+        System.out.println("Requests        : " + requests.size());
+        System.out.println("Rejected        : " + (requests.size() - held.size()));
+        System.out.println("Confirmed       : " + confirmed);
+        System.out.println("Payment failed  : " + (held.size() - confirmed));
+        System.out.printf("Elapsed         : %.1f ms (%.0f requests/sec)%n", nanos / 1e6,
+                requests.size() * 1e9 / Math.max(1, nanos));
+    }
+
+    public static List<BookingRequest> read(Path file, List<String> errors) throws IOException {
+        String text = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        List<Map<String, String>> rows = text.trim().startsWith("[") ? parseJson(text) : parseCsv(text);
+        List<BookingRequest> requests = new ArrayList<>();
+        int n = 0;
+        for (Map<String, String> row : rows) {
+            n++;
+            try {
+                LocalDate in = LocalDate.parse(row.getOrDefault("checkIn", "").trim());
+                LocalDate out = LocalDate.parse(row.getOrDefault("checkOut", "").trim());
+                if (!out.isAfter(in)) {
+                    errors.add("request " + n + ": check-out must be after check-in");
+                    continue;
+                }
+                String name = row.getOrDefault("guestName", "").trim();
+                String phone = row.getOrDefault("guestPhone", "").trim();
+                // JSON escapes can carry line breaks that would split the booking's journal record
+                String invalid = BookingEngine.checkGuestDetails(name, phone);
+                if (invalid != null) {
+                    errors.add("request " + n + ": " + invalid);
+                    continue;
+                }
+                requests.add(new BookingRequest(row.getOrDefault("category", "").trim(),
+                        row.getOrDefault("roomId", "").trim(), name, phone, in, out));
+            } catch (DateTimeParseException e) {
+                errors.add("request " + n + ": invalid date (use yyyy-MM-dd)");
+            }
+        }
+        return requests;
+    }
+
+    private static final String[] CSV_COLUMNS = {"category", "roomId", "guestName", "guestPhone", "checkIn", "checkOut"};
+
+    private static List<Map<String, String>> parseCsv(String text) {
+        List<Map<String, String>> rows = new ArrayList<>();
+        for (String line : text.split("\r?\n")) {
+            if (line.trim().isEmpty() || line.toLowerCase().startsWith("category,")) continue;
+            String[] p = line.split(",", -1);
+            Map<String, String> row = new HashMap<>();
+            for (int i = 0; i < CSV_COLUMNS.length && i < p.length; i++) row.put(CSV_COLUMNS[i], p[i]);
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    // just enough JSON for an array of flat objects with string, number or null values
+    private static List<Map<String, String>> parseJson(String text) throws IOException {
+        List<Map<String, String>> rows = new ArrayList<>();
+        int[] pos = {0};
+        expect(text, pos, '[');
+        if (peek(text, pos) == ']') return rows;
+        while (true) {
+            rows.add(jsonObject(text, pos));
+            if (peek(text, pos) == ',') pos[0]++;
+            else break;
+        }
+        expect(text, pos, ']');
+        return rows;
+    }
+
+    // one flat JSON object, as posted to the HTTP API
+    static Map<String, String> parseJsonObject(String text) throws IOException {
+        return jsonObject(text, new int[1]);
+    }
+
+    private static Map<String, String> jsonObject(String text, int[] pos) throws IOException {
+        Map<String, String> row = new HashMap<>();
+        expect(text, pos, '{');
+        if (peek(text, pos) != '}') {
+            while (true) {
+                String key = jsonString(text, pos);
+                expect(text, pos, ':');
+                row.put(key, jsonValue(text, pos));
+                if (peek(text, pos) == ',') pos[0]++;
+                else break;
+            }
+        }
+        expect(text, pos, '}');
+        return row;
+    }
+
+    private static char peek(String text, int[] pos) throws IOException {
+        while (pos[0] < text.length() && Character.isWhitespace(text.charAt(pos[0]))) pos[0]++;
+        if (pos[0] >= text.length()) throw new IOException("Unexpected end of JSON");
+        return text.charAt(pos[0]);
+    }
+
+    private static void expect(String text, int[] pos, char c) throws IOException {
+        if (peek(text, pos) != c) throw new IOException("Expected '" + c + "' at offset " + pos[0]);
+        pos[0]++;
+    }
+
+    private static String jsonValue(String text, int[] pos) throws IOException {
+        if (peek(text, pos) == '"') return jsonString(text, pos);
+        int start = pos[0];
+        while (pos[0] < text.length() && ",}] \t\r\n".indexOf(text.charAt(pos[0])) < 0) pos[0]++;
+        String literal = text.substring(start, pos[0]);
+        return literal.equals("null") ? "" : literal;
+    }
+
+    private static String jsonString(String text, int[] pos) throws IOException {
+        expect(text, pos, '"');
+        StringBuilder sb = new StringBuilder();
+        while (pos[0] < text.length()) {
+            char c = text.charAt(pos[0]++);
+            if (c == '"') return sb.toString();
+            if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+            char e = text.charAt(pos[0]++);
+            switch (e) {
+                case 'n': sb.append('\n'); break;
+                case 't': sb.append('\t'); break;
+                case 'r': sb.append('\r'); break;
+                case 'b': sb.append('\b'); break;
+                case 'f': sb.append('\f'); break;
+                case 'u': sb.append((char) Integer.parseInt(text.substring(pos[0], pos[0] + 4), 16)); pos[0] += 4; break;
+                default: sb.append(e);
+            }
+        }
+        throw new IOException("Unterminated JSON string");
+    }
+}
@@ -0,0 +1,149 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.util.*;
+
+// Layout (big-endian):
+//   header   : int magic "HBKB", int version, int statusCount, int stringCount, int bookingCount
+//   statuses : statusCount x string, indexed by the record's status byte
+//   strings  : stringCount x string (room ids, guest names and phones, non-UUID ids)
+//   records  : bookingCount x 46 bytes
+//              byte flags, long idHi, long idLo, int room, int guest, int phone,
+//              int startEpochDay, int endEpochDay, long price, byte status
+// where a string is (int byteLength, UTF-8 bytes) and price is in hundredths.
+// A booking id that is not a canonical UUID is kept in the string table (idHi = index),
+// and a price that does not survive the hundredths round trip is kept as raw double bits.
+public class BinaryBookingStore {
+    public static final int MAGIC = 0x48424B42;
+    public static final int VERSION = 1;
+
+    private static final int FLAG_ID_STRING = 1;
+    private static final int FLAG_PRICE_RAW = 2;
+
+    private static final long PRICE_SCALE = 100;
+
+    public static boolean isBinary(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file.toFile()))) {
+            return in.readInt() == MAGIC;
+        } catch (EOFException e) {
+            return false;
+        }
+    }
+
+    public static void write(Path file, List<Booking> bookings) throws IOException {
+        Map<String, Integer> statusIndex = new HashMap<>();
+        List<String> statuses = new ArrayList<>();
+        for (String s : Booking.KNOWN_STATUSES) intern(s, statusIndex, statuses);
+        Map<String, Integer> stringIndex = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        // first pass only fills the tables, which must precede the records
+        for (Booking b : bookings) {
+            if (Booking.canonicalUuid(b.getBookingId()) == null) intern(b.getBookingId(), stringIndex, strings);
+            intern(b.getRoomId(), stringIndex, strings);
+            intern(b.getGuestName(), stringIndex, strings);
+            intern(b.getGuestPhone(), stringIndex, strings);
+            intern(b.getStatus(), statusIndex, statuses);
+        }
+        if (statuses.size() > 0x100) throw new IOException("Too many distinct booking statuses for binary format");
+
+        try (FileOutputStream fos = new FileOutputStream(file.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fos, 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(statuses.size());
+            out.writeInt(strings.size());
+            out.writeInt(bookings.size());
+            for (String s : statuses) writeString(out, s);
+            for (String s : strings) writeString(out, s);
+            for (Booking b : bookings) {
+                int flags = 0;
+                long hi;
+                long lo;
+                UUID uuid = Booking.canonicalUuid(b.getBookingId());
+                if (uuid != null) {
+                    hi = uuid.getMostSignificantBits();
+                    lo = uuid.getLeastSignificantBits();
+                } else {
+                    flags |= FLAG_ID_STRING;
+                    hi = stringIndex.get(b.getBookingId());
+                    lo = 0;
+                }
+                long price = Math.round(b.getTotalPrice() * PRICE_SCALE);
+                if (Double.doubleToLongBits((double) price / PRICE_SCALE) != Double.doubleToLongBits(b.getTotalPrice())) {
+                    flags |= FLAG_PRICE_RAW;
+                    price = Double.doubleToRawLongBits(b.getTotalPrice());
+                }
+                out.writeByte(flags);
+                out.writeLong(hi);
+                out.writeLong(lo);
+                out.writeInt(stringIndex.get(b.getRoomId()));
+                out.writeInt(stringIndex.get(b.getGuestName()));
+                out.writeInt(stringIndex.get(b.getGuestPhone()));
+                out.writeInt((int) b.getStartDate().toEpochDay());
+                out.writeInt((int) b.getEndDate().toEpochDay());
+                out.writeLong(price);
+                out.writeByte(statusIndex.get(b.getStatus()));
+            }
+            out.flush();
+            fos.getChannel().force(false);
+        }
+    }
+
+    public static BulkCsvLoader.Result<Booking> read(Path file) throws IOException {
+        long t0 = System.nanoTime();
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            if (buf.remaining() < 20 || buf.getInt() != MAGIC) throw new IOException("Not a binary bookings file: " + file);
+            int version = buf.getInt();
+            if (version != VERSION) throw new IOException("Unsupported binary bookings version " + version);
+            String[] statuses = new String[buf.getInt()];
+            String[] strings = new String[buf.getInt()];
+            int count = buf.getInt();
+            for (int i = 0; i < statuses.length; i++) statuses[i] = readString(buf);
+            for (int i = 0; i < strings.length; i++) strings[i] = readString(buf);
+
+            List<Booking> rows = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int flags = buf.get();
+                long hi = buf.getLong();
+                long lo = buf.getLong();
+                String roomId = strings[buf.getInt()];
+                String guestName = strings[buf.getInt()];
+                String guestPhone = strings[buf.getInt()];
+                LocalDate start = LocalDate.ofEpochDay(buf.getInt());
+                LocalDate end = LocalDate.ofEpochDay(buf.getInt());
+                long price = buf.getLong();
+                String status = statuses[buf.get() & 0xFF];
+                String id = (flags & FLAG_ID_STRING) != 0 ? strings[(int) hi] : new UUID(hi, lo).toString();
+                double total = (flags & FLAG_PRICE_RAW) != 0
+                        ? Double.longBitsToDouble(price) : (double) price / PRICE_SCALE;
+                rows.add(new Booking(id, roomId, guestName, guestPhone, start, end, total, status));
+            }
+            return new BulkCsvLoader.Result<>(rows, System.nanoTime() - t0);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(b.length);
+        out.write(b);
+    }
+
+    private static String readString(ByteBuffer buf) {
+        byte[] b = new byte[buf.getInt()];
+        buf.get(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    private static int intern(String s, Map<String, Integer> index, List<String> strings) {
+        Integer i = index.get(s);
+        if (i != null) return i;
+        index.put(s, strings.size());
+        strings.add(s);
+        return strings.size() - 1;
+    }
+}
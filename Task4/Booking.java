@@ -10,9 +10,14 @@ public class Booking {
     private LocalDate startDate;
     private LocalDate endDate;
     private double totalPrice;
-    private String status;      
+    private volatile String status;
+    // once recorded, a booking is a view onto its BookingTable row and the fields above are unused
+    private volatile BookingTable table;
+    private int row;
 
     private static final DateTimeFormatter fmt = DateTimeFormatter.ISO_LOCAL_DATE;
+    // the first status codes in BookingTable and in binary booking files, in this order
+    static final String[] KNOWN_STATUSES = {"PENDING_PAYMENT", "BOOKED", "PAYMENT_FAILED", "CANCELLED"};
 
     public Booking(String bookingId, String roomId, String guestName, String guestPhone,
                    LocalDate startDate, LocalDate endDate, double totalPrice, String status) {
@@ -26,40 +31,83 @@ public class Booking {
         this.status = status;
     }
 
+    Booking(BookingTable table, int row) {
+        this.table = table;
+        this.row = row;
+    }
+
     public static Booking createNew(String roomId, String guestName, String guestPhone,
                                     LocalDate startDate, LocalDate endDate, double totalPrice) {
         return new Booking(UUID.randomUUID().toString(), roomId, guestName, guestPhone,
                 startDate, endDate, totalPrice, "PENDING_PAYMENT");
     }
 
-    public String getBookingId() { return bookingId; }
-    public String getRoomId() { return roomId; }
-    public String getGuestName() { return guestName; }
-    public String getGuestPhone() { return guestPhone; }
-    public LocalDate getStartDate() { return startDate; }
-    public LocalDate getEndDate() { return endDate; }
-    public double getTotalPrice() { return totalPrice; }
-    public String getStatus() { return status; }
+    public String getBookingId() { return table == null ? bookingId : table.bookingId(row); }
+    public String getRoomId() { return table == null ? roomId : table.roomId(row); }
+    public String getGuestName() { return table == null ? guestName : table.guestName(row); }
+    public String getGuestPhone() { return table == null ? guestPhone : table.guestPhone(row); }
+    public LocalDate getStartDate() { return table == null ? startDate : table.startDate(row); }
+    public LocalDate getEndDate() { return table == null ? endDate : table.endDate(row); }
+    public double getTotalPrice() { return table == null ? totalPrice : table.totalPrice(row); }
+    public String getStatus() { return table == null ? status : table.status(row); }
+
+    public void setStatus(String status) {
+        if (table == null) this.status = status;
+        else table.setStatus(row, status);
+    }
+
+    void attach(BookingTable table, int row) {
+        this.row = row;
+        this.table = table;
+    }
+
+    // this booking's row in `t`, or -1 if it is not a view onto that table
+    int rowIn(BookingTable t) {
+        return table == t ? row : -1;
+    }
 
-    public void setStatus(String status) { this.status = status; }
+    public static boolean occupiesRoom(String status) {
+        return !(status.equalsIgnoreCase("CANCELLED") || status.equalsIgnoreCase("PAYMENT_FAILED"));
+    }
+
+    // the id as a UUID if it is one in canonical lower-case form, so it survives the round trip
+    static UUID canonicalUuid(String s) {
+        if (s == null || s.length() != 36) return null;
+        try {
+            UUID u = UUID.fromString(s);
+            return u.toString().equals(s) ? u : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return getBookingId().equals(((Booking) o).getBookingId());
+    }
+
+    public int hashCode() {
+        return getBookingId().hashCode();
+    }
 
     
     public String toString() {
-        return "BookingID: " + bookingId + "\nRoom: " + roomId + "\nGuest: " + guestName +
-               "\nPhone: " + guestPhone + "\nFrom: " + startDate + " To: " + endDate +
-               "\nTotal: ₹" + totalPrice + "\nStatus: " + status;
+        return "BookingID: " + getBookingId() + "\nRoom: " + getRoomId() + "\nGuest: " + getGuestName() +
+               "\nPhone: " + getGuestPhone() + "\nFrom: " + getStartDate() + " To: " + getEndDate() +
+               "\nTotal: ₹" + getTotalPrice() + "\nStatus: " + getStatus();
     }
 
     public String toCSV() {
         return String.join(",",
-                escape(bookingId),
-                escape(roomId),
-                escape(guestName),
-                escape(guestPhone),
-                startDate.format(fmt),
-                endDate.format(fmt),
-                String.valueOf(totalPrice),
-                escape(status)
+                escape(getBookingId()),
+                escape(getRoomId()),
+                escape(getGuestName()),
+                escape(getGuestPhone()),
+                getStartDate().format(fmt),
+                getEndDate().format(fmt),
+                String.valueOf(getTotalPrice()),
+                escape(getStatus())
         );
     }
 
@@ -77,10 +125,12 @@ public class Booking {
         return new Booking(bookingId, roomId, guestName, guestPhone, start, end, total, status);
     }
 
+    // the journal, snapshot and change feed hold one record per line, so line breaks are escaped too
     private static String escape(String s) {
-        return s.replace(",", "&#44;");
+        return s.replace(",", "&#44;").replace("\n", "&#10;").replace("\r", "&#13;");
     }
-    private static String unescape(String s) {
-        return s.replace("&#44;", ",");
+    static String unescape(String s) {
+        if (s.indexOf('&') < 0) return s;
+        return s.replace("&#44;", ",").replace("&#10;", "\n").replace("&#13;", "\r");
     }
 }
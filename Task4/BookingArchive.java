@@ -0,0 +1,372 @@
+import java.io.*;
+import java.lang.ref.SoftReference;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+// Cold tier for bookings that no longer affect availability: stays that have ended, and
+// cancelled or failed bookings. They live in one segment per month of the last night, sorted
+// by booking ID, each with a small index file holding
+//   - a Bloom filter over the IDs, so an ID lookup skips segments that cannot have it
+//   - every 64th ID with its byte offset, so a lookup that gets past the filter reads one block
+//   - a Bloom filter over the trigrams of its lower-cased guest names
+//   - the segment's BOOKED revenue and room-nights per category per night, for RevenueLedger
+// Only the index files are read at startup. A guest-name search reads only the segments whose
+// name filter holds every trigram of the query (all of them for queries under three letters)
+// and keeps them softly cached. Archived bookings are read-only.
+public class BookingArchive {
+    private static final int BLOCK_ROWS = 64;
+    private static final int BLOOM_BITS_PER_ID = 10;
+    private static final int BLOOM_HASHES = 7;
+
+    private final Path dir;
+    // month (yyyy-MM) -> segment; replaced, never changed, so lookups need no lock
+    private volatile Map<String, Segment> segments = Collections.emptyMap();
+
+    public interface NightVisitor {
+        void visit(String category, long day, long revenuePaise, long roomNights);
+    }
+
+    private static class Segment {
+        final Path data;
+        int rows;
+        long dataBytes;
+        long[] bloom;
+        long[] names;
+        String[] blockIds;
+        long[] blockOffsets;
+        // BOOKED totals per category per night
+        String[] nightCategories;
+        long[] nightDays;
+        long[] nightRevenue;
+        long[] nightCounts;
+        volatile SoftReference<List<Booking>> cached = new SoftReference<>(null);
+
+        Segment(Path data) {
+            this.data = data;
+        }
+
+        boolean mightContain(String id) {
+            return bloom(bloom, id, false);
+        }
+
+        // `needle` is lower-cased
+        boolean mightHaveName(String needle) {
+            for (String t : BookingIndex.trigrams(needle)) {
+                if (!bloom(names, t, false)) return false;
+            }
+            return true;
+        }
+    }
+
+    public BookingArchive(Path dir) {
+        this.dir = dir;
+    }
+
+    // belongs in the archive: cancelled or failed, or the stay ended before `today`
+    static boolean isCold(Booking b, LocalDate today) {
+        return !Booking.occupiesRoom(b.getStatus()) || b.getEndDate().isBefore(today);
+    }
+
+    // reads the segment indexes; a missing or stale index is rebuilt from its segment
+    public synchronized void load(Function<String, String> categoryOf) throws IOException {
+        Map<String, Segment> loaded = new TreeMap<>();
+        if (Files.isDirectory(dir)) {
+            try (Stream<Path> files = Files.list(dir)) {
+                for (Path data : (Iterable<Path>) files.filter(p -> p.toString().endsWith(".csv")).sorted()::iterator) {
+                    Segment s = readIndex(data);
+                    if (s == null) s = write(data, readAll(data), categoryOf);
+                    loaded.put(month(data), s);
+                }
+            }
+        }
+        segments = loaded;
+    }
+
+    // merges bookings into their month segments; a booking already archived is replaced
+    public synchronized void add(List<Booking> bookings, Function<String, String> categoryOf) throws IOException {
+        if (bookings.isEmpty()) return;
+        Files.createDirectories(dir);
+        Map<String, List<Booking>> byMonth = new TreeMap<>();
+        for (Booking b : bookings) {
+            byMonth.computeIfAbsent(monthKey(b.getEndDate()), k -> new ArrayList<>()).add(b);
+        }
+        Map<String, Segment> updated = new TreeMap<>(segments);
+        for (Map.Entry<String, List<Booking>> e : byMonth.entrySet()) {
+            Path data = dir.resolve("bookings-" + e.getKey() + ".csv");
+            Map<String, Booking> merged = new HashMap<>();
+            if (Files.exists(data)) {
+                for (Booking b : readAll(data)) merged.put(b.getBookingId(), b);
+            }
+            for (Booking b : e.getValue()) merged.put(b.getBookingId(), b);
+            updated.put(e.getKey(), write(data, new ArrayList<>(merged.values()), categoryOf));
+        }
+        segments = updated;
+    }
+
+    public int size() {
+        int n = 0;
+        for (Segment s : segments.values()) n += s.rows;
+        return n;
+    }
+
+    public Booking find(String id) {
+        for (Segment s : segments.values()) {
+            if (s.rows == 0 || !s.mightContain(id)) continue;
+            int block = Arrays.binarySearch(s.blockIds, id);
+            if (block < 0) block = -block - 2;
+            if (block < 0) continue;
+            long from = s.blockOffsets[block];
+            long to = block + 1 < s.blockOffsets.length ? s.blockOffsets[block + 1] : s.dataBytes;
+            try {
+                for (String line : readBlock(s.data, from, to)) {
+                    Booking b = Booking.fromCSV(line);
+                    if (b != null && b.getBookingId().equals(id)) return b;
+                }
+            } catch (IOException | RuntimeException e) {
+                System.out.println("Failed to read archived bookings: " + e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    // archived bookings whose guest name contains the query, ignoring case, oldest month first
+    public List<Booking> findByGuestName(String query) {
+        String needle = query.toLowerCase();
+        List<Booking> found = new ArrayList<>();
+        for (Segment s : segments.values()) {
+            if (s.rows == 0 || !s.mightHaveName(needle)) continue;
+            List<Booking> rows = s.cached.get();
+            if (rows == null) {
+                try {
+                    rows = readAll(s.data);
+                } catch (IOException | RuntimeException e) {
+                    System.out.println("Failed to read archived bookings: " + e.getMessage());
+                    continue;
+                }
+                s.cached = new SoftReference<>(rows);
+            }
+            for (Booking b : rows) {
+                if (BookingFilter.containsIgnoreCase(b.getGuestName(), needle)) found.add(b);
+            }
+        }
+        return found;
+    }
+
+    public void forEachNight(NightVisitor visitor) {
+        for (Segment s : segments.values()) {
+            for (int i = 0; i < s.nightDays.length; i++) {
+                visitor.visit(s.nightCategories[i], s.nightDays[i], s.nightRevenue[i], s.nightCounts[i]);
+            }
+        }
+    }
+
+    // yyyy-MM, with as many year digits as the year needs
+    private static String monthKey(LocalDate d) {
+        return String.format("%04d-%02d", d.getYear(), d.getMonthValue());
+    }
+
+    private static String month(Path data) {
+        String name = data.getFileName().toString();
+        return name.substring("bookings-".length(), name.length() - ".csv".length());
+    }
+
+    private static Path indexOf(Path data) {
+        String name = data.getFileName().toString();
+        return data.resolveSibling(name.substring(0, name.length() - ".csv".length()) + ".idx");
+    }
+
+    private static List<Booking> readAll(Path data) throws IOException {
+        List<Booking> rows = new ArrayList<>();
+        try (BufferedReader br = Files.newBufferedReader(data, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                Booking b = Booking.fromCSV(line);
+                if (b != null) rows.add(b);
+            }
+        }
+        return rows;
+    }
+
+    private static List<String> readBlock(Path data, long from, long to) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate((int) (to - from));
+        try (FileChannel ch = FileChannel.open(data, StandardOpenOption.READ)) {
+            long pos = from;
+            while (buf.hasRemaining()) {
+                int n = ch.read(buf, pos);
+                if (n < 0) break;
+                pos += n;
+            }
+        }
+        String text = new String(buf.array(), 0, buf.position(), StandardCharsets.UTF_8);
+        return Arrays.asList(text.split("\n"));
+    }
+
+    // writes the segment sorted by ID and then its index, each through a temp file
+    private static Segment write(Path data, List<Booking> rows, Function<String, String> categoryOf) throws IOException {
+        rows.sort(Comparator.comparing(Booking::getBookingId));
+        Segment s = new Segment(data);
+        s.rows = rows.size();
+        s.bloom = new long[Math.max(1, (rows.size() * BLOOM_BITS_PER_ID + 63) >>> 6)];
+        int blocks = (rows.size() + BLOCK_ROWS - 1) / BLOCK_ROWS;
+        s.blockIds = new String[blocks];
+        s.blockOffsets = new long[blocks];
+        RevenueLedger nights = new RevenueLedger();
+        Set<String> trigrams = new HashSet<>();
+        for (Booking b : rows) trigrams.addAll(BookingIndex.trigrams(b.getGuestName().toLowerCase()));
+        s.names = new long[Math.max(1, (trigrams.size() * BLOOM_BITS_PER_ID + 63) >>> 6)];
+        for (String t : trigrams) bloom(s.names, t, true);
+
+        Path tmp = data.resolveSibling(data.getFileName() + ".tmp");
+        long offset = 0;
+        try (FileOutputStream fos = new FileOutputStream(tmp.toFile());
+             OutputStream os = new BufferedOutputStream(fos, 1 << 16)) {
+            for (int i = 0; i < rows.size(); i++) {
+                Booking b = rows.get(i);
+                if (i % BLOCK_ROWS == 0) {
+                    s.blockIds[i / BLOCK_ROWS] = b.getBookingId();
+                    s.blockOffsets[i / BLOCK_ROWS] = offset;
+                }
+                byte[] line = (b.toCSV() + "\n").getBytes(StandardCharsets.UTF_8);
+                os.write(line);
+                offset += line.length;
+                bloom(s.bloom, b.getBookingId(), true);
+                String category = categoryOf.apply(b.getRoomId());
+                if (category != null && b.getStatus().equals("BOOKED")) {
+                    nights.add(category, b.getStartDate().toEpochDay(), b.getEndDate().toEpochDay(),
+                            PricingEngine.toPaise(b.getTotalPrice()));
+                }
+            }
+            os.flush();
+            fos.getChannel().force(false);
+        }
+        s.dataBytes = offset;
+        List<String> categories = new ArrayList<>();
+        List<long[]> values = new ArrayList<>();
+        nights.forEachNight((category, day, revenue, count) -> {
+            categories.add(category);
+            values.add(new long[]{day, revenue, count});
+        });
+        s.nightCategories = categories.toArray(new String[0]);
+        s.nightDays = new long[values.size()];
+        s.nightRevenue = new long[values.size()];
+        s.nightCounts = new long[values.size()];
+        for (int i = 0; i < values.size(); i++) {
+            s.nightDays[i] = values.get(i)[0];
+            s.nightRevenue[i] = values.get(i)[1];
+            s.nightCounts[i] = values.get(i)[2];
+        }
+        Files.move(tmp, data, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        writeIndex(s);
+        return s;
+    }
+
+    // double hashing over the spread string hash; with `set` marks the key, otherwise tests for it
+    private static boolean bloom(long[] bloom, String key, boolean set) {
+        long h = key.hashCode() * 0x9E3779B97F4A7C15L;
+        int h1 = (int) h;
+        int h2 = (int) (h >>> 32) | 1;
+        long bits = (long) bloom.length << 6;
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            long bit = Math.floorMod(h1 + (long) i * h2, bits);
+            if (set) bloom[(int) (bit >>> 6)] |= 1L << bit;
+            else if ((bloom[(int) (bit >>> 6)] & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    // rows,<count>,<data bytes> / bloom,<hex words> / names,<hex words> / block,<offset>,<first id> /
+    // night,<day>,<paise>,<count>,<category>
+    private static void writeIndex(Segment s) throws IOException {
+        Path index = indexOf(s.data);
+        Path tmp = index.resolveSibling(index.getFileName() + ".tmp");
+        try (Writer w = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            w.write("rows," + s.rows + "," + s.dataBytes + "\n");
+            w.write(hexLine("bloom", s.bloom));
+            w.write(hexLine("names", s.names));
+            for (int i = 0; i < s.blockIds.length; i++) {
+                w.write("block," + s.blockOffsets[i] + "," + s.blockIds[i] + "\n");
+            }
+            for (int i = 0; i < s.nightDays.length; i++) {
+                w.write("night," + s.nightDays[i] + "," + s.nightRevenue[i] + "," + s.nightCounts[i] + ","
+                        + s.nightCategories[i] + "\n");
+            }
+        }
+        Files.move(tmp, index, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static String hexLine(String tag, long[] words) {
+        StringBuilder sb = new StringBuilder(tag);
+        for (long word : words) sb.append(',').append(Long.toHexString(word));
+        return sb.append('\n').toString();
+    }
+
+    private static long[] parseHex(String line) {
+        String[] words = line.substring(line.indexOf(',') + 1).split(",");
+        long[] out = new long[words.length];
+        for (int i = 0; i < words.length; i++) out[i] = Long.parseUnsignedLong(words[i], 16);
+        return out;
+    }
+
+    // null when the index is missing, unreadable or was written for a different segment file
+    private static Segment readIndex(Path data) {
+        Path index = indexOf(data);
+        if (!Files.exists(index)) return null;
+        Segment s = new Segment(data);
+        List<String> blockIds = new ArrayList<>();
+        List<Long> blockOffsets = new ArrayList<>();
+        List<String> categories = new ArrayList<>();
+        List<long[]> nights = new ArrayList<>();
+        try (BufferedReader br = Files.newBufferedReader(index, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                String[] p = line.split(",", 5);
+                switch (p[0]) {
+                    case "rows":
+                        s.rows = Integer.parseInt(p[1]);
+                        s.dataBytes = Long.parseLong(p[2]);
+                        break;
+                    case "bloom":
+                        s.bloom = parseHex(line);
+                        break;
+                    case "names":
+                        s.names = parseHex(line);
+                        break;
+                    case "block":
+                        String[] b = line.split(",", 3);
+                        blockOffsets.add(Long.parseLong(b[1]));
+                        blockIds.add(b[2]);
+                        break;
+                    case "night":
+                        nights.add(new long[]{Long.parseLong(p[1]), Long.parseLong(p[2]), Long.parseLong(p[3])});
+                        categories.add(p[4]);
+                        break;
+                    default:
+                        break;
+                }
+            }
+            // an index without a name filter predates it and is rebuilt
+            if (s.bloom == null || s.names == null || Files.size(data) != s.dataBytes) return null;
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+        s.blockIds = blockIds.toArray(new String[0]);
+        s.blockOffsets = new long[blockOffsets.size()];
+        for (int i = 0; i < s.blockOffsets.length; i++) s.blockOffsets[i] = blockOffsets.get(i);
+        s.nightCategories = categories.toArray(new String[0]);
+        s.nightDays = new long[nights.size()];
+        s.nightRevenue = new long[nights.size()];
+        s.nightCounts = new long[nights.size()];
+        for (int i = 0; i < nights.size(); i++) {
+            s.nightDays[i] = nights.get(i)[0];
+            s.nightRevenue[i] = nights.get(i)[1];
+            s.nightCounts[i] = nights.get(i)[2];
+        }
+        return s;
+    }
+}
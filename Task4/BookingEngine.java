@@ -0,0 +1,788 @@
+import java.io.*;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Booking logic shared by every front end. Check-and-reserve is atomic per room: each room
+// maps to one of a fixed set of lock stripes, so bookings for different rooms do not contend.
+// The booking table, name index and journal sit behind a separate catalog lock that is
+// only held for the append itself. Recorded bookings live in a columnar BookingTable; the
+// Booking objects handed out for them are views made on request. Availability searches take
+// no lock at all: they read the calendar's current immutable snapshot.
+public class BookingEngine {
+    public static final String ROOMS_FILE = "rooms.csv";
+    public static final String BOOKINGS_FILE = "bookings.csv";
+    public static final String BINARY_BOOKINGS_FILE = "bookings.bin";
+    public static final String JOURNAL_FILE = "bookings.journal";
+    public static final String ARCHIVE_DIR = "archive";
+    private static final int STRIPES = 64;
+    private static final int LIST_SCAN_BATCH = 4096;
+    // Longest stay, and how far from today a stay may start (-Dstay.maxNights, -Dstay.windowDays).
+    // Calendar, price blocks and caches are sized by the nights a request spans, so unbounded
+    // dates would let a single request make them arbitrarily large.
+    public static final int MAX_STAY_NIGHTS = Integer.getInteger("stay.maxNights", 365);
+    public static final int STAY_WINDOW_DAYS = Integer.getInteger("stay.windowDays", 5 * 365);
+
+    private final Path roomsFile;
+    private final BookingJournal journal;
+    // past, cancelled and failed bookings, moved out of memory when the engine loads
+    private final BookingArchive archive;
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+    private final ReentrantReadWriteLock catalogLock = new ReentrantReadWriteLock();
+
+    private volatile List<Room> rooms = new ArrayList<>();
+    // replaced whole by setRooms, never changed in place, so lookups need no lock
+    private volatile Map<String, Room> roomsById = new HashMap<>();
+    private final BookingTable table = new BookingTable();
+    private volatile OccupancyCalendar calendar = new OccupancyCalendar(new ArrayList<>());
+    private final BookingIndex index = new BookingIndex(table);
+    private final PricingEngine pricing = new PricingEngine(this);
+    private final RevenueLedger revenue = new RevenueLedger();
+    private final SearchCache searchCache = new SearchCache(Integer.getInteger("search.cacheSize", 4096));
+    // reserved, not yet paid: held in the calendar but not recorded until payment completes
+    private final Map<String, Booking> pending = new ConcurrentHashMap<>();
+    // expiry for pending bookings that were placed on a timed hold; keyed by booking ID
+    private final HoldManager holds = new HoldManager(100, 1024);
+    // ordered changes to recorded bookings, for read replicas
+    private final ChangeFeed feed = new ChangeFeed();
+
+    public BookingEngine() {
+        this(Paths.get(""));
+    }
+
+    public BookingEngine(Path dataDir) {
+        this.roomsFile = dataDir.resolve(ROOMS_FILE);
+        // start from the binary snapshot once one has been made with BookingFormatConverter
+        Path binary = dataDir.resolve(BINARY_BOOKINGS_FILE);
+        this.journal = new BookingJournal(Files.exists(binary) ? binary : dataDir.resolve(BOOKINGS_FILE),
+                dataDir.resolve(JOURNAL_FILE));
+        this.archive = new BookingArchive(dataDir.resolve(ARCHIVE_DIR));
+        for (int i = 0; i < STRIPES; i++) stripes[i] = new ReentrantLock();
+    }
+
+    public void load() {
+        loadRooms();
+        loadBookings();
+    }
+
+    private void loadRooms() {
+        List<Room> loaded = new ArrayList<>();
+        if (!Files.exists(roomsFile)) {
+            System.out.println("Rooms file not found. Creating default rooms...");
+            loaded.addAll(defaultRooms());
+            setRooms(loaded);
+            saveRooms();
+            return;
+        }
+
+        try {
+            loaded.addAll(BulkCsvLoader.loadRooms(roomsFile).getRows());
+            System.out.println("Loaded " + loaded.size() + " rooms.");
+        } catch (IOException e) {
+            System.out.println("Failed to read rooms file: " + e.getMessage());
+            loaded.clear();
+            loaded.addAll(defaultRooms());
+        }
+        setRooms(loaded);
+    }
+
+    public void setRooms(List<Room> list) {
+        Map<String, Room> byId = new HashMap<>();
+        for (Room r : list) byId.put(r.getId(), r);
+        roomsById = byId;
+        rooms = Collections.unmodifiableList(new ArrayList<>(list));
+        rebuildCalendar();
+        // replicas hold the room list too; they start over from a new snapshot
+        feed.reset();
+    }
+
+    // rebuilds the calendar and the revenue ledger from the booking table
+    private void rebuildCalendar() {
+        OccupancyCalendar c = new OccupancyCalendar(rooms);
+        catalogLock.readLock().lock();
+        try {
+            revenue.clear();
+            for (int row = 0; row < table.size(); row++) {
+                if (table.occupiesRoom(row)) c.occupy(table.roomId(row), table.startDay(row), table.endDay(row));
+                if (table.status(row).equals("BOOKED")) {
+                    Room r = roomsById.get(table.roomId(row));
+                    if (r != null) {
+                        revenue.add(r.getCategory(), table.startDay(row), table.endDay(row),
+                                PricingEngine.toPaise(table.totalPrice(row)));
+                    }
+                }
+            }
+            archive.forEachNight(revenue::addNight);
+            for (Booking b : pending.values()) c.add(b);
+        } finally {
+            catalogLock.readLock().unlock();
+        }
+        c.seal();
+        calendar = c;
+        pricing.invalidateAll();
+        searchCache.invalidateAll();
+    }
+
+    private static List<Room> defaultRooms() {
+        List<Room> rooms = new ArrayList<>();
+        rooms.add(new Room("R101", "Standard", 1500));
+        rooms.add(new Room("R102", "Standard", 1500));
+        rooms.add(new Room("R103", "Standard", 1500));
+        rooms.add(new Room("R201", "Deluxe", 2500));
+        rooms.add(new Room("R202", "Deluxe", 2500));
+        rooms.add(new Room("R203", "Deluxe", 2600));
+        rooms.add(new Room("R301", "Suite", 4000));
+        rooms.add(new Room("R302", "Suite", 4200));
+        rooms.add(new Room("R303", "Suite", 4500));
+        return rooms;
+    }
+
+    public void saveRooms() {
+        try (PrintWriter pw = new PrintWriter(new FileWriter(roomsFile.toFile()))) {
+            for (Room r : rooms) {
+                pw.println(r.toCSV());
+            }
+        } catch (IOException e) {
+            System.out.println("Failed to save rooms: " + e.getMessage());
+        }
+    }
+
+    // Only active and future stays are kept in memory. Everything else read from the bookings
+    // file is merged into the archive, and the file is rewritten without it, so startup and heap
+    // grow with the active window rather than with the whole history.
+    private void loadBookings() {
+        long t0 = System.nanoTime();
+        catalogLock.writeLock().lock();
+        try {
+            archive.load(this::categoryOf);
+            if (!journal.exists()) {
+                System.out.println("No bookings file found (starting fresh).");
+                rebuildCalendar();
+                return;
+            }
+            List<Booking> loaded = new ArrayList<>();
+            BulkCsvLoader.Result<Booking> snapshot = journal.load(loaded);
+            LocalDate today = LocalDate.now();
+            List<Booking> cold = new ArrayList<>();
+            for (int i = 0; i < loaded.size(); i++) {
+                Booking b = loaded.get(i);
+                if (BookingArchive.isCold(b, today)) cold.add(b);
+                else index.add(table.append(b));
+                loaded.set(i, null);
+            }
+            if (!cold.isEmpty()) {
+                archive.add(cold, this::categoryOf);
+                journal.compact(table.asList());
+            }
+            rebuildCalendar();
+            System.out.println("Loaded " + table.size() + " bookings" +
+                    (cold.isEmpty() ? "" : ", archived " + cold.size() + " past or closed") + "." +
+                    (snapshot == null ? "" : " (" + snapshot.rowsPerSecond() + " rows/sec)"));
+        } catch (IOException e) {
+            System.out.println("Failed to read bookings file: " + e.getMessage());
+        } finally {
+            catalogLock.writeLock().unlock();
+            HotelMetrics.LOAD.recordSince(t0);
+        }
+    }
+
+    private String categoryOf(String roomId) {
+        Room r = roomsById.get(roomId);
+        return r == null ? null : r.getCategory();
+    }
+
+    public void saveBookings() {
+        long t0 = System.nanoTime();
+        catalogLock.readLock().lock();
+        try {
+            journal.compact(table.asList());
+        } catch (IOException e) {
+            System.out.println("Failed to save bookings: " + e.getMessage());
+        } finally {
+            catalogLock.readLock().unlock();
+            HotelMetrics.SAVE.recordSince(t0);
+        }
+    }
+
+    // null if the nights [first, last] may be searched, priced or booked, otherwise the reason
+    public static String checkStay(LocalDate first, LocalDate last) {
+        return checkStay(first.toEpochDay(), last.toEpochDay());
+    }
+
+    public static String checkStay(long firstDay, long lastDay) {
+        if (lastDay < firstDay) return "Check-out must be after check-in.";
+        if (lastDay - firstDay + 1 > MAX_STAY_NIGHTS) return "Stays are limited to " + MAX_STAY_NIGHTS + " nights.";
+        return checkDate(firstDay);
+    }
+
+    // null if the guest details may be stored, otherwise the reason; records are one per line
+    // and a control character has no business in a name or a phone number
+    public static String checkGuestDetails(String name, String phone) {
+        if (hasControlCharacter(name)) return "Guest name must not contain control characters.";
+        if (hasControlCharacter(phone)) return "Guest phone must not contain control characters.";
+        return null;
+    }
+
+    private static boolean hasControlCharacter(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (Character.isISOControl(s.charAt(i))) return true;
+        }
+        return false;
+    }
+
+    // null if the day is within STAY_WINDOW_DAYS of today (UTC), otherwise the reason
+    public static String checkDate(long day) {
+        long today = System.currentTimeMillis() / 86_400_000L;
+        if (Math.abs(day - today) > STAY_WINDOW_DAYS) return "Dates must be within " + STAY_WINDOW_DAYS + " days of today.";
+        return null;
+    }
+
+    public List<Room> getRooms() {
+        return rooms;
+    }
+
+    public Room getRoom(String roomId) {
+        return roomsById.get(roomId);
+    }
+
+    // repeated searches are answered from the search cache until their nights change
+    public List<Room> findAvailableRooms(String category, LocalDate startInclusive, LocalDate endInclusive) {
+        long t0 = System.nanoTime();
+        long start = startInclusive.toEpochDay();
+        long end = endInclusive.toEpochDay();
+        List<Room> cached = searchCache.get(category, start, end);
+        List<Room> free;
+        if (cached != null) {
+            free = new ArrayList<>(cached);
+        } else {
+            long version = searchCache.currentVersion();
+            free = calendar.freeRooms(category, startInclusive, endInclusive);
+            searchCache.put(category, start, end, free, version);
+        }
+        HotelMetrics.SEARCH.recordSince(t0);
+        return free;
+    }
+
+    // epoch-day form that appends to the caller's list, so a reused list makes the search allocation-free
+    public void findAvailableRooms(String category, long startDay, long endDay, List<Room> out) {
+        long t0 = System.nanoTime();
+        List<Room> cached = searchCache.get(category, startDay, endDay);
+        if (cached != null) {
+            // addAll would copy through toArray(); cached lists are random-access
+            for (int i = 0, n = cached.size(); i < n; i++) out.add(cached.get(i));
+        } else {
+            long version = searchCache.currentVersion();
+            int from = out.size();
+            calendar.freeRooms(category, startDay, endDay, out);
+            searchCache.put(category, startDay, endDay, out.subList(from, out.size()), version);
+        }
+        HotelMetrics.SEARCH.recordSince(t0);
+    }
+
+    public SearchCache getSearchCache() {
+        return searchCache;
+    }
+
+    // occupied rooms of a category (or ALL) for each of `days` nights from `from`
+    public int[] occupancyPerNight(String category, LocalDate from, int days) {
+        return calendar.occupancyPerNight(category, from, days);
+    }
+
+    public int roomCount(String category) {
+        return calendar.roomCount(category);
+    }
+
+    // BOOKED revenue and room-nights of a category (or ALL) over the nights [from, toInclusive]
+    public RevenueLedger.Totals revenue(String category, LocalDate from, LocalDate toInclusive) {
+        return revenue.totals(category, from.toEpochDay(), toInclusive.toEpochDay());
+    }
+
+    public List<String> revenueCategories() {
+        return revenue.categories();
+    }
+
+    // the current occupancy as one immutable version, for readers that ask several questions
+    public OccupancyCalendar.Snapshot occupancySnapshot() {
+        return calendar.snapshot();
+    }
+
+    // dynamic price of the nights [start, endExclusive), at least one night; see PricingEngine
+    public double calculateTotalPrice(Room r, LocalDate start, LocalDate endExclusive) {
+        return PricingEngine.toRupees(pricing.quote(r, start, endExclusive));
+    }
+
+    public long quotePaise(Room r, LocalDate start, LocalDate endExclusive) {
+        return pricing.quote(r, start, endExclusive);
+    }
+
+    public long nightlyRatePaise(Room r, LocalDate night) {
+        return pricing.nightlyRate(r, night);
+    }
+
+    // Atomically checks the room is still free and holds it for a PENDING_PAYMENT booking.
+    // Throws IllegalArgumentException for stays checkStay refuses.
+    public boolean reserve(Booking b) {
+        String invalid = checkStay(b.getStartDate(), b.getEndDate());
+        if (invalid != null) throw new IllegalArgumentException(invalid);
+        long t0 = System.nanoTime();
+        ReentrantLock lock = stripe(b.getRoomId());
+        lock.lock();
+        try {
+            if (!calendar.isRoomFree(b.getRoomId(), b.getStartDate().toEpochDay(), b.getEndDate().toEpochDay())) return false;
+            b.setStatus("PENDING_PAYMENT");
+            calendar.add(b);
+            occupancyChanged(b);
+            pending.put(b.getBookingId(), b);
+            return true;
+        } finally {
+            lock.unlock();
+            HotelMetrics.RESERVE.recordSince(t0);
+        }
+    }
+
+    // Reserves a whole batch against one consistent view: every stripe is held while rooms are
+    // picked, so the batch sees no concurrent changes and its own earlier picks. Returns one entry
+    // per request, null where nothing was free or the stay is refused by checkStay; with
+    // allOrNothing a single miss releases them all.
+    public List<Booking> reserveBatch(List<BookingRequest> requests, boolean allOrNothing) {
+        List<Booking> result = new ArrayList<>(requests.size());
+        for (ReentrantLock lock : stripes) lock.lock();
+        try {
+            for (BookingRequest req : requests) {
+                LocalDate lastNight = req.getCheckOut().minusDays(1);
+                Room room = checkStay(req.getCheckIn(), lastNight) == null ? pickRoom(req, lastNight) : null;
+                if (room == null) {
+                    result.add(null);
+                    if (allOrNothing) break;
+                    continue;
+                }
+                Booking b = Booking.createNew(room.getId(), req.getGuestName(), req.getGuestPhone(),
+                        req.getCheckIn(), lastNight, calculateTotalPrice(room, req.getCheckIn(), req.getCheckOut()));
+                calendar.add(b);
+                occupancyChanged(b);
+                pending.put(b.getBookingId(), b);
+                result.add(b);
+            }
+            if (allOrNothing && result.contains(null)) {
+                for (Booking b : result) {
+                    if (b != null && pending.remove(b.getBookingId(), b)) vacate(b);
+                }
+                result.clear();
+                for (int i = 0; i < requests.size(); i++) result.add(null);
+            }
+        } finally {
+            for (int i = stripes.length - 1; i >= 0; i--) stripes[i].unlock();
+        }
+        return result;
+    }
+
+    private Room pickRoom(BookingRequest req, LocalDate lastNight) {
+        if (lastNight.isBefore(req.getCheckIn())) return null;
+        if (!req.getRoomId().isEmpty()) {
+            Room r = roomsById.get(req.getRoomId());
+            if (r == null || !calendar.isRoomFree(r.getId(), req.getCheckIn().toEpochDay(), lastNight.toEpochDay())) return null;
+            return r;
+        }
+        List<Room> free = calendar.freeRooms(req.getCategory(), req.getCheckIn(), lastNight);
+        return free.isEmpty() ? null : free.get(0);
+    }
+
+    // reserves b like reserve() and releases it again unless it is settled, or its hold renewed,
+    // within ttlMillis. Until then searches see the room as taken.
+    public boolean hold(Booking b, long ttlMillis) {
+        if (!reserve(b)) return false;
+        renewHold(b, ttlMillis, () -> release(b));
+        return true;
+    }
+
+    // restarts the hold on a pending booking with a new expiry action; false if it is no longer
+    // pending (already settled, released, or its hold ran out)
+    public boolean renewHold(Booking b, long ttlMillis, Runnable onExpire) {
+        ReentrantLock lock = stripe(b.getRoomId());
+        lock.lock();
+        try {
+            if (pending.get(b.getBookingId()) != b) return false;
+            holds.schedule(b.getBookingId(), ttlMillis, onExpire);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int activeHolds() {
+        return holds.activeCount();
+    }
+
+    // drops a reservation that was never paid for; nothing is recorded
+    public void release(Booking b) {
+        ReentrantLock lock = stripe(b.getRoomId());
+        lock.lock();
+        try {
+            if (!pending.remove(b.getBookingId(), b)) return;
+            holds.cancel(b.getBookingId());
+            vacate(b);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // settles a reserved booking as BOOKED or PAYMENT_FAILED and records it; returns false
+    // if it was already settled or released (e.g. a payment finishing after its hold expired)
+    public boolean completePayment(Booking b, boolean paid) {
+        if (!settle(b, paid)) return false;
+        record(Collections.singletonList(b));
+        return true;
+    }
+
+    // settles a batch and records every booking that was still pending with one journal commit;
+    // returns how many were settled
+    public int completePayments(List<Booking> batch, boolean[] paid) {
+        List<Booking> settled = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            if (settle(batch.get(i), paid[i])) settled.add(batch.get(i));
+        }
+        record(settled);
+        return settled.size();
+    }
+
+    private boolean settle(Booking b, boolean paid) {
+        ReentrantLock lock = stripe(b.getRoomId());
+        lock.lock();
+        try {
+            if (!pending.remove(b.getBookingId(), b)) return false;
+            holds.cancel(b.getBookingId());
+            if (!paid) vacate(b);
+            b.setStatus(paid ? "BOOKED" : "PAYMENT_FAILED");
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void record(List<Booking> created) {
+        if (created.isEmpty()) return;
+        catalogLock.writeLock().lock();
+        try {
+            for (Booking b : created) {
+                int row = table.append(b);
+                b.attach(table, row);
+                index.add(row);
+                feed.created(b);
+                journal.recordCreated(b);
+                if (b.getStatus().equals("BOOKED")) bookedChanged(b, true);
+            }
+        } catch (IOException e) {
+            System.out.println("Failed to save bookings: " + e.getMessage());
+        } finally {
+            catalogLock.writeLock().unlock();
+        }
+        commitJournal();
+    }
+
+    // returns false when the booking was already cancelled or has been archived
+    public boolean cancel(Booking b) {
+        ReentrantLock lock = stripe(b.getRoomId());
+        lock.lock();
+        try {
+            if (b.getStatus().equalsIgnoreCase("CANCELLED") || isArchived(b)) return false;
+            if (b.getStatus().equals("BOOKED")) bookedChanged(b, false);
+            // a failed payment already gave its nights back, possibly to someone else
+            if (Booking.occupiesRoom(b.getStatus())) vacate(b);
+            catalogLock.readLock().lock();
+            try {
+                b.setStatus("CANCELLED");
+            } finally {
+                catalogLock.readLock().unlock();
+            }
+            // a booking still waiting on payment was never recorded, so there is nothing to journal
+            if (pending.remove(b.getBookingId(), b)) {
+                holds.cancel(b.getBookingId());
+                return true;
+            }
+        } finally {
+            lock.unlock();
+        }
+        catalogLock.writeLock().lock();
+        try {
+            feed.statusChanged(b);
+            journal.recordStatus(b);
+        } catch (IOException e) {
+            System.out.println("Failed to save bookings: " + e.getMessage());
+        } finally {
+            catalogLock.writeLock().unlock();
+        }
+        commitJournal();
+        return true;
+    }
+
+    // caller holds the room's stripe; bookings overlapping b (hand-edited files only) keep their nights
+    private void vacate(Booking b) {
+        long start = b.getStartDate().toEpochDay();
+        long end = b.getEndDate().toEpochDay();
+        // nights another live booking of the room still covers stay taken, recorded or pending
+        BitSet keep = new BitSet();
+        for (Booking p : pending.values()) {
+            if (p == b || !p.getRoomId().equals(b.getRoomId())) continue;
+            long ps = p.getStartDate().toEpochDay();
+            long pe = p.getEndDate().toEpochDay();
+            if (pe < start || ps > end) continue;
+            keep.set((int) (Math.max(start, ps) - start), (int) (Math.min(end, pe) - start) + 1);
+        }
+        catalogLock.readLock().lock();
+        try {
+            int own = b.rowIn(table);
+            int roomCode = table.roomCodeOf(b.getRoomId());
+            for (int i = 0, n = table.rowCount(roomCode); i < n; i++) {
+                int row = table.rowOf(roomCode, i);
+                if (row == own || !table.occupiesRoom(row) || table.endDay(row) < start || table.startDay(row) > end) continue;
+                keep.set((int) (Math.max(start, table.startDay(row)) - start), (int) (Math.min(end, table.endDay(row)) - start) + 1);
+            }
+        } finally {
+            catalogLock.readLock().unlock();
+        }
+        calendar.release(b.getRoomId(), start, end, keep);
+        occupancyChanged(b);
+    }
+
+    // keeps the revenue ledger in step with bookings entering or leaving BOOKED
+    private void bookedChanged(Booking b, boolean booked) {
+        Room r = roomsById.get(b.getRoomId());
+        if (r == null) return;
+        long start = b.getStartDate().toEpochDay();
+        long end = b.getEndDate().toEpochDay();
+        if (booked) revenue.add(r.getCategory(), start, end, PricingEngine.toPaise(b.getTotalPrice()));
+        else revenue.remove(r.getCategory(), start, end, PricingEngine.toPaise(b.getTotalPrice()));
+    }
+
+    // occupancy feeds the nightly rate and search results, so cached ones for the booking's nights are stale
+    private void occupancyChanged(Booking b) {
+        Room r = roomsById.get(b.getRoomId());
+        if (r == null) return;
+        pricing.invalidate(r.getCategory(), b.getStartDate().toEpochDay(), b.getEndDate().toEpochDay());
+        searchCache.invalidate(r.getCategory(), b.getStartDate().toEpochDay(), b.getEndDate().toEpochDay());
+    }
+
+    // fsync outside the catalog lock so concurrent writers share one group commit
+    private void commitJournal() {
+        try {
+            journal.commit();
+            if (journal.needsCompaction()) saveBookings();
+        } catch (IOException e) {
+            System.out.println("Failed to save bookings: " + e.getMessage());
+        }
+    }
+
+    // resident bookings first; the archive is only read for IDs not found in memory
+    public Booking findBookingById(String id) {
+        Booking b;
+        catalogLock.readLock().lock();
+        try {
+            int row = table.find(id);
+            b = row >= 0 ? table.view(row) : pending.get(id);
+        } finally {
+            catalogLock.readLock().unlock();
+        }
+        return b != null ? b : archive.find(id);
+    }
+
+    // archived bookings are read-only
+    public boolean isArchived(Booking b) {
+        if (pending.get(b.getBookingId()) == b) return false;
+        catalogLock.readLock().lock();
+        try {
+            return b.rowIn(table) < 0;
+        } finally {
+            catalogLock.readLock().unlock();
+        }
+    }
+
+    public int archivedCount() {
+        return archive.size();
+    }
+
+    public List<Booking> getPendingBookings() {
+        return new ArrayList<>(pending.values());
+    }
+
+    // bookings still awaiting payment that match the filter; they are not in the table until settled
+    public List<Booking> findPendingBookings(BookingFilter filter) {
+        List<Booking> found = new ArrayList<>();
+        for (Booking b : pending.values()) {
+            if (filter.matches(b, roomsById.get(b.getRoomId()))) found.add(b);
+        }
+        return found;
+    }
+
+    public List<Booking> findByGuestName(String query) {
+        List<Booking> found = new ArrayList<>();
+        catalogLock.readLock().lock();
+        try {
+            for (int row : index.findByGuestName(query)) found.add(table.view(row));
+        } finally {
+            catalogLock.readLock().unlock();
+        }
+        found.addAll(archive.findByGuestName(query));
+        return found;
+    }
+
+    // past, cancelled and failed bookings whose guest name contains the query
+    public List<Booking> findArchivedByGuestName(String query) {
+        return archive.findByGuestName(query);
+    }
+
+    public List<Booking> getBookings() {
+        catalogLock.readLock().lock();
+        try {
+            return new ArrayList<>(table.asList());
+        } finally {
+            catalogLock.readLock().unlock();
+        }
+    }
+
+    public int bookingCount() {
+        catalogLock.readLock().lock();
+        try {
+            return table.size();
+        } finally {
+            catalogLock.readLock().unlock();
+        }
+    }
+
+    public int writeBookings(Writer out) throws IOException {
+        return writeBookings(BookingFilter.ALL, new int[1], Integer.MAX_VALUE, out);
+    }
+
+    // recorded bookings with exactly this status, plus held ones for PENDING_PAYMENT
+    public int countByStatus(String status) {
+        catalogLock.readLock().lock();
+        try {
+            return table.countByStatus(status) + (status.equals("PENDING_PAYMENT") ? pending.size() : 0);
+        } finally {
+            catalogLock.readLock().unlock();
+        }
+    }
+
+    // Writes up to `limit` recorded bookings matching the filter, each under a separator line and
+    // in Booking.toString form, straight from the table through one reused buffer. cursor[0] is
+    // the row to resume from; it is advanced past what was read and set to -1 once the table is
+    // exhausted. Returns how many bookings were written. The catalog lock is only held for short
+    // runs of rows so a long listing does not hold up bookings, and a room or name filter walks
+    // just that room's rows or the name's index candidates.
+    public int writeBookings(BookingFilter filter, int[] cursor, int limit, Writer out) throws IOException {
+        StringBuilder sb = new StringBuilder(256);
+        char[] buf = new char[256];
+        BookingIndex.Candidates byName = null;
+        int written = 0;
+        while (written < limit && cursor[0] >= 0) {
+            sb.setLength(0);
+            boolean found = false;
+            catalogLock.readLock().lock();
+            try {
+                if (byName == null && !filter.getGuestName().isEmpty()) byName = index.candidates(filter.getGuestName());
+                int row = nextMatch(filter, byName, cursor);
+                if (row >= 0) {
+                    sb.append("--------------------").append(System.lineSeparator());
+                    table.appendDetails(row, sb);
+                    sb.append(System.lineSeparator());
+                    found = true;
+                }
+            } finally {
+                catalogLock.readLock().unlock();
+            }
+            if (!found) continue;
+            if (sb.length() > buf.length) buf = new char[sb.length() * 2];
+            sb.getChars(0, sb.length(), buf, 0);
+            out.write(buf, 0, sb.length());
+            written++;
+        }
+        return written;
+    }
+
+    // same walk as writeBookings, returning views for callers that want objects (e.g. the HTTP API)
+    public List<Booking> findBookings(BookingFilter filter, int[] cursor, int limit) {
+        List<Booking> found = new ArrayList<>();
+        BookingIndex.Candidates byName = null;
+        while (found.size() < limit && cursor[0] >= 0) {
+            catalogLock.readLock().lock();
+            try {
+                if (byName == null && !filter.getGuestName().isEmpty()) byName = index.candidates(filter.getGuestName());
+                int row = nextMatch(filter, byName, cursor);
+                if (row >= 0) found.add(table.view(row));
+            } finally {
+                catalogLock.readLock().unlock();
+            }
+        }
+        return found;
+    }
+
+    // Joins the change feed with room for `capacity` queued changes. The subscriber's snapshot is
+    // the first getSnapshotRows() table rows: rows are only appended, so they can be copied with
+    // writeSnapshot afterwards while the feed queues whatever changes in the meantime.
+    public ChangeFeed.Subscriber subscribeChanges(int capacity) {
+        catalogLock.readLock().lock();
+        try {
+            return feed.subscribe(capacity, table.size());
+        } finally {
+            catalogLock.readLock().unlock();
+        }
+    }
+
+    public void unsubscribeChanges(ChangeFeed.Subscriber s) {
+        feed.unsubscribe(s);
+    }
+
+    public ChangeFeed getChangeFeed() {
+        return feed;
+    }
+
+    // Writes table rows [0, toRow) as CSV lines, taking the catalog lock for one batch at a time.
+    // A row's status may already be newer than the snapshot; the feed repeats the change after it.
+    public void writeSnapshot(int toRow, Writer out) throws IOException {
+        StringBuilder sb = new StringBuilder(1 << 16);
+        for (int from = 0; from < toRow; from += LIST_SCAN_BATCH) {
+            sb.setLength(0);
+            catalogLock.readLock().lock();
+            try {
+                for (int row = from; row < Math.min(toRow, from + LIST_SCAN_BATCH); row++) {
+                    sb.append(table.view(row).toCSV()).append('\n');
+                }
+            } finally {
+                catalogLock.readLock().unlock();
+            }
+            out.append(sb);
+        }
+    }
+
+    private int nextMatch(BookingFilter filter, BookingIndex.Candidates byName, int[] cursor) {
+        return nextMatch(table, roomsById, filter, byName, cursor);
+    }
+
+    // Caller holds the lock guarding `table`. Looks at up to LIST_SCAN_BATCH rows from cursor[0] and
+    // returns the first match, or -1 if there was none in that run; the cursor is left after the
+    // last row looked at, or at -1 once the table is exhausted. Shared with BookingReplica.
+    static int nextMatch(BookingTable table, Map<String, Room> roomsById, BookingFilter filter,
+                         BookingIndex.Candidates byName, int[] cursor) {
+        int roomCode = filter.getRoomId().isEmpty() ? -1 : table.roomCodeOf(filter.getRoomId());
+        for (int scanned = 0; scanned < LIST_SCAN_BATCH; scanned++) {
+            int row;
+            if (roomCode >= 0) row = table.nextRowOfRoom(roomCode, cursor[0]);
+            else if (!filter.getRoomId().isEmpty()) row = -1;
+            else if (byName != null) row = byName.next(cursor[0]);
+            else row = cursor[0] < table.size() ? cursor[0] : -1;
+            if (row < 0) {
+                cursor[0] = -1;
+                return -1;
+            }
+            cursor[0] = row + 1;
+            if (filter.matches(table, row, roomsById.get(table.roomId(row)))) return row;
+        }
+        return -1;
+    }
+
+    private ReentrantLock stripe(String roomId) {
+        return stripes[(roomId.hashCode() & 0x7fffffff) % STRIPES];
+    }
+}
@@ -0,0 +1,54 @@
+import java.time.LocalDate;
+
+// Which bookings a listing shows. Empty text and null dates mean "any"; the date range keeps
+// bookings with at least one night in [from, to], and the guest name is a partial match.
+public class BookingFilter {
+    public static final BookingFilter ALL = new BookingFilter("", "", "", "", null, null);
+
+    private final String status;
+    private final String roomId;
+    private final String category;
+    private final String guestName;
+    private final long fromDay;
+    private final long toDay;
+
+    public BookingFilter(String status, String roomId, String category, String guestName,
+                         LocalDate from, LocalDate to) {
+        this.status = status == null ? "" : status;
+        this.roomId = roomId == null ? "" : roomId;
+        this.category = category == null || category.equalsIgnoreCase("ALL") ? "" : category;
+        this.guestName = guestName == null ? "" : guestName.toLowerCase();
+        this.fromDay = from == null ? Long.MIN_VALUE : from.toEpochDay();
+        this.toDay = to == null ? Long.MAX_VALUE : to.toEpochDay();
+    }
+
+    public String getRoomId() { return roomId; }
+    public String getGuestName() { return guestName; }
+
+    // `room` is the booking's room, or null if it is no longer in the room list
+    public boolean matches(BookingTable table, int row, Room room) {
+        if (!status.isEmpty() && !status.equalsIgnoreCase(table.status(row))) return false;
+        if (!roomId.isEmpty() && !roomId.equals(table.roomId(row))) return false;
+        if (!category.isEmpty() && (room == null || !category.equalsIgnoreCase(room.getCategory()))) return false;
+        if (table.endDay(row) < fromDay || table.startDay(row) > toDay) return false;
+        return guestName.isEmpty() || containsIgnoreCase(table.guestName(row), guestName);
+    }
+
+    // same test for a booking outside the table, e.g. one still awaiting payment
+    public boolean matches(Booking b, Room room) {
+        if (!status.isEmpty() && !status.equalsIgnoreCase(b.getStatus())) return false;
+        if (!roomId.isEmpty() && !roomId.equals(b.getRoomId())) return false;
+        if (!category.isEmpty() && (room == null || !category.equalsIgnoreCase(room.getCategory()))) return false;
+        if (b.getEndDate().toEpochDay() < fromDay || b.getStartDate().toEpochDay() > toDay) return false;
+        return guestName.isEmpty() || containsIgnoreCase(b.getGuestName(), guestName);
+    }
+
+    // `lowerNeedle` is already lower-cased; avoids toLowerCase copies of every guest name
+    static boolean containsIgnoreCase(String haystack, String lowerNeedle) {
+        int n = lowerNeedle.length();
+        for (int i = 0; i + n <= haystack.length(); i++) {
+            if (haystack.regionMatches(true, i, lowerNeedle, 0, n)) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,59 @@
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.List;
+
+public class BookingFormatConverter {
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3) {
+            usage();
+            return;
+        }
+        Path from = Paths.get(args[1]);
+        Path to = Paths.get(args[2]);
+        switch (args[0]) {
+            case "to-binary": {
+                if (BinaryBookingStore.isBinary(from)) fail(from + " is already a binary bookings file.");
+                BulkCsvLoader.Result<Booking> csv = BulkCsvLoader.loadBookings(from);
+                BinaryBookingStore.write(to, csv.getRows());
+                BulkCsvLoader.Result<Booking> bin = BinaryBookingStore.read(to);
+                report(from, csv, to, bin);
+                break;
+            }
+            case "to-csv": {
+                if (!BinaryBookingStore.isBinary(from)) fail(from + " is not a binary bookings file.");
+                BulkCsvLoader.Result<Booking> bin = BinaryBookingStore.read(from);
+                BookingJournal.writeCsv(to, bin.getRows());
+                BulkCsvLoader.Result<Booking> csv = BulkCsvLoader.loadBookings(to);
+                report(to, csv, from, bin);
+                break;
+            }
+            default:
+                usage();
+        }
+    }
+
+    private static void report(Path csvFile, BulkCsvLoader.Result<Booking> csv,
+                               Path binFile, BulkCsvLoader.Result<Booking> bin) throws IOException {
+        List<Booking> a = csv.getRows();
+        List<Booking> b = bin.getRows();
+        for (int i = 0; i < Math.max(a.size(), b.size()); i++) {
+            if (i >= a.size() || i >= b.size() || !a.get(i).toCSV().equals(b.get(i).toCSV())) {
+                fail("Round trip mismatch at row " + (i + 1));
+            }
+        }
+        System.out.println("Converted " + a.size() + " bookings.");
+        System.out.println("CSV   : " + Files.size(csvFile) + " bytes, " + csv.rowsPerSecond() + " rows/sec");
+        System.out.println("Binary: " + Files.size(binFile) + " bytes, " + bin.rowsPerSecond() + " rows/sec");
+    }
+
+    // a failed conversion must fail the script that ran it
+    private static void fail(String message) {
+        System.out.println(message);
+        System.exit(1);
+    }
+
+    private static void usage() {
+        System.out.println("Usage: java BookingFormatConverter to-binary <bookings.csv> <bookings.bin>");
+        System.out.println("       java BookingFormatConverter to-csv <bookings.bin> <bookings.csv>");
+    }
+}
@@ -0,0 +1,84 @@
+import java.util.*;
+
+// Guest-name search over a BookingTable: trigram of the lower-cased guest name -> table rows
+// containing it, in row order. Lookups by id go straight to the table's own id hash.
+public class BookingIndex {
+    private final BookingTable table;
+    private final Map<String, Postings> byTrigram = new HashMap<>();
+
+    private static class Postings {
+        int[] rows = new int[4];
+        int size;
+
+        void add(int row) {
+            if (size == rows.length) rows = Arrays.copyOf(rows, size * 2);
+            rows[size++] = row;
+        }
+    }
+
+    public BookingIndex(BookingTable table) {
+        this.table = table;
+    }
+
+    public void clear() {
+        byTrigram.clear();
+    }
+
+    public void add(int row) {
+        for (String t : trigrams(table.guestName(row).toLowerCase())) {
+            byTrigram.computeIfAbsent(t, k -> new Postings()).add(row);
+        }
+    }
+
+    // partial, case-insensitive match; only rows sharing the query's rarest trigram are checked
+    public List<Integer> findByGuestName(String query) {
+        String q = query.toLowerCase();
+        List<Integer> found = new ArrayList<>();
+        Candidates candidates = candidates(q);
+        for (int row = candidates.next(0); row >= 0; row = candidates.next(row + 1)) {
+            if (table.guestName(row).toLowerCase().contains(q)) found.add(row);
+        }
+        return found;
+    }
+
+    // Rows that may hold a guest name containing the query, walked in row order from a cursor.
+    // Only valid under the owner's lock, like the index itself.
+    public class Candidates {
+        private final Postings postings;
+        private final boolean all;
+
+        private Candidates(Postings postings, boolean all) {
+            this.postings = postings;
+            this.all = all;
+        }
+
+        // first candidate row >= fromRow, or -1
+        public int next(int fromRow) {
+            if (all) return fromRow < table.size() ? fromRow : -1;
+            if (postings == null) return -1;
+            int i = Arrays.binarySearch(postings.rows, 0, postings.size, fromRow);
+            if (i < 0) i = -i - 1;
+            return i < postings.size ? postings.rows[i] : -1;
+        }
+    }
+
+    // candidates for a partial name; the rarest trigram of the query narrows them down
+    public Candidates candidates(String query) {
+        String q = query.toLowerCase();
+        if (q.length() < 3) return new Candidates(null, true);
+        Postings rarest = null;
+        for (String t : trigrams(q)) {
+            Postings p = byTrigram.get(t);
+            if (p == null) return new Candidates(null, false);
+            if (rarest == null || p.size < rarest.size) rarest = p;
+        }
+        return new Candidates(rarest, false);
+    }
+
+    // distinct three-character substrings of an already lower-cased string
+    static Set<String> trigrams(String s) {
+        Set<String> out = new HashSet<>();
+        for (int i = 0; i + 3 <= s.length(); i++) out.add(s.substring(i, i + 3));
+        return out;
+    }
+}
@@ -0,0 +1,203 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+public class BookingJournal implements Closeable {
+    private static final String CREATED = "C";
+    private static final String STATUS = "S";
+    private static final int COMPACT_THRESHOLD = 1000;
+
+    private final Path snapshotFile;
+    private final Path journalFile;
+    private final boolean binary;
+    private final Object syncLock = new Object();
+
+    private FileOutputStream out;
+    private Writer writer;
+    private FileChannel channel;
+    private long appendedSeq;
+    private volatile long syncedSeq;
+    private int journalRecords;
+
+    public BookingJournal(Path snapshotFile, Path journalFile) {
+        this.snapshotFile = snapshotFile;
+        this.journalFile = journalFile;
+        this.binary = snapshotFile.toString().endsWith(".bin");
+    }
+
+    public boolean exists() {
+        return Files.exists(snapshotFile) || Files.exists(journalFile);
+    }
+
+    // snapshot first, then the journal tail; replay is idempotent so a crash between
+    // writing a snapshot and truncating the journal is harmless
+    public BulkCsvLoader.Result<Booking> load(List<Booking> into) throws IOException {
+        Map<String, Booking> byId = new LinkedHashMap<>();
+        BulkCsvLoader.Result<Booking> snapshot = null;
+        if (Files.exists(snapshotFile)) {
+            snapshot = binary ? BinaryBookingStore.read(snapshotFile) : BulkCsvLoader.loadBookings(snapshotFile);
+            for (Booking b : snapshot.getRows()) byId.put(b.getBookingId(), b);
+        }
+        journalRecords = 0;
+        if (Files.exists(journalFile)) {
+            truncateTornTail();
+            try (BufferedReader br = Files.newBufferedReader(journalFile, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = br.readLine()) != null) {
+                    if (replay(line, byId)) journalRecords++;
+                }
+            }
+        }
+        into.addAll(byId.values());
+        return snapshot;
+    }
+
+    private static boolean replay(String line, Map<String, Booking> byId) {
+        int comma = line.indexOf(',');
+        if (comma < 0) return false;
+        String type = line.substring(0, comma);
+        String rest = line.substring(comma + 1);
+        try {
+            if (type.equals(CREATED)) {
+                Booking b = Booking.fromCSV(rest);
+                if (b == null) return false;
+                byId.put(b.getBookingId(), b);
+                return true;
+            }
+            if (type.equals(STATUS)) {
+                String[] p = rest.split(",", -1);
+                if (p.length < 2) return false;
+                Booking b = byId.get(p[0]);
+                if (b != null) b.setStatus(p[1]);
+                return true;
+            }
+        } catch (RuntimeException e) {
+            // torn record at the tail of the journal
+        }
+        return false;
+    }
+
+    public void recordCreated(Booking b) throws IOException {
+        append(CREATED + "," + b.toCSV());
+    }
+
+    public void recordStatus(Booking b) throws IOException {
+        append(STATUS + "," + b.getBookingId() + "," + b.getStatus());
+    }
+
+    private synchronized void append(String record) throws IOException {
+        if (writer == null) open();
+        writer.write(record);
+        writer.write('\n');
+        appendedSeq++;
+        journalRecords++;
+    }
+
+    // group commit: a caller whose records were already forced by another thread returns
+    // without touching the disk, and one force covers everything appended before it
+    public void commit() throws IOException {
+        long target;
+        synchronized (this) {
+            target = appendedSeq;
+        }
+        if (syncedSeq >= target) return;
+        synchronized (syncLock) {
+            if (syncedSeq >= target) return;
+            long upTo;
+            synchronized (this) {
+                writer.flush();
+                upTo = appendedSeq;
+            }
+            channel.force(false);
+            syncedSeq = upTo;
+        }
+    }
+
+    public synchronized boolean needsCompaction() {
+        return journalRecords >= COMPACT_THRESHOLD;
+    }
+
+    // writes a full snapshot next to the old one, swaps it in, then starts an empty journal
+    public void compact(List<Booking> bookings) throws IOException {
+        synchronized (syncLock) {
+            synchronized (this) {
+                Path tmp = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+                if (binary) BinaryBookingStore.write(tmp, bookings);
+                else writeCsv(tmp, bookings);
+                Files.move(tmp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                closeWriter();
+                Files.deleteIfExists(journalFile);
+                journalRecords = 0;
+                syncedSeq = appendedSeq;
+            }
+        }
+    }
+
+    static void writeCsv(Path file, List<Booking> bookings) throws IOException {
+        try (FileOutputStream fos = new FileOutputStream(file.toFile());
+             Writer w = new BufferedWriter(new OutputStreamWriter(fos, StandardCharsets.UTF_8))) {
+            for (Booking b : bookings) {
+                w.write(b.toCSV());
+                w.write('\n');
+            }
+            w.flush();
+            fos.getChannel().force(false);
+        }
+    }
+
+    private void open() throws IOException {
+        truncateTornTail();
+        out = new FileOutputStream(journalFile.toFile(), true);
+        channel = out.getChannel();
+        writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    }
+
+    // Every record ends in '\n', so bytes after the last one are a record cut short by a crash.
+    // They are cut off before replay (a torn status could still parse) and before appending
+    // (the next record would otherwise be glued onto the fragment and lost).
+    private void truncateTornTail() throws IOException {
+        if (!Files.exists(journalFile)) return;
+        try (FileChannel ch = FileChannel.open(journalFile, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = ch.size();
+            long end = size;
+            ByteBuffer buf = ByteBuffer.allocate(4096);
+            while (end > 0) {
+                int n = (int) Math.min(buf.capacity(), end);
+                buf.clear().limit(n);
+                while (buf.hasRemaining()) {
+                    if (ch.read(buf, end - n + buf.position()) < 0) throw new EOFException("Journal shrank while reading");
+                }
+                int i = n - 1;
+                while (i >= 0 && buf.get(i) != '\n') i--;
+                if (i >= 0) {
+                    end = end - n + i + 1;
+                    break;
+                }
+                end -= n;
+            }
+            if (end < size) {
+                ch.truncate(end);
+                ch.force(false);
+                System.out.println("Dropped a torn record at the end of " + journalFile.getFileName() + ".");
+            }
+        }
+    }
+
+    private void closeWriter() throws IOException {
+        if (writer == null) return;
+        writer.close();
+        writer = null;
+        channel = null;
+        out = null;
+    }
+
+    public void close() throws IOException {
+        commit();
+        synchronized (this) {
+            closeWriter();
+        }
+    }
+}
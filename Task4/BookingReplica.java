@@ -0,0 +1,395 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.*;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Read-only copy of a HotelBookingSystem's recorded bookings, kept up to date from its change
+// feed (see ReplicationServer) and answered from this process's own booking table and name
+// index, so lookups and listings do not compete with reservations in the primary. On connect the
+// replica loads a snapshot into a fresh Store and swaps it in once complete, then applies changes
+// in sequence order. If the connection breaks or the primary drops it for falling behind, it
+// reconnects and loads a new snapshot while the old Store keeps answering.
+// Lag is measured per change as the time from publish to apply, and in changes as the newest
+// sequence the primary has announced minus the last one applied. Pending (unpaid) and archived
+// bookings stay with the primary.
+//
+// Usage: java [-Dhttp.port=8081] BookingReplica [port] [host]   (defaults 7070, loopback)
+//   GET /bookings/{id}
+//   GET /bookings?guest=&status=&roomId=&category=&from=&to=&cursor=&limit=
+//   GET /replication
+public class BookingReplica {
+    private static final DateTimeFormatter fmt = DateTimeFormatter.ISO_LOCAL_DATE;
+    private static final int PAGE_SIZE = 20;
+    private static final long RETRY_MILLIS = 1000;
+
+    private final String host;
+    private final int port;
+    private final Scanner scanner = new Scanner(System.in);
+    private final LatencyHistogram lag = new LatencyHistogram("replicationLag");
+
+    private volatile Store store = new Store(new ArrayList<>());
+    private volatile boolean connected;
+    private volatile long appliedSeq;
+    private volatile long primarySeq;
+    private volatile long lastLagMicros;
+    private volatile int snapshots;
+    private volatile boolean stopped;
+    private Socket socket;
+
+    // One snapshot's bookings with their own indexes. Changes are applied under the write lock;
+    // queries take the read lock, as the engine does with its catalog lock.
+    static class Store {
+        final List<Room> rooms;
+        final Map<String, Room> roomsById = new HashMap<>();
+        final BookingTable table = new BookingTable();
+        final BookingIndex index = new BookingIndex(table);
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+        Store(List<Room> rooms) {
+            this.rooms = rooms;
+            for (Room r : rooms) roomsById.put(r.getId(), r);
+        }
+
+        void created(Booking b) {
+            lock.writeLock().lock();
+            try {
+                if (table.find(b.getBookingId()) < 0) index.add(table.append(b));
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void statusChanged(String bookingId, String status) {
+            lock.writeLock().lock();
+            try {
+                int row = table.find(bookingId);
+                if (row >= 0) table.setStatus(row, status);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        Booking find(String bookingId) {
+            lock.readLock().lock();
+            try {
+                int row = table.find(bookingId);
+                return row < 0 ? null : table.view(row);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        int size() {
+            lock.readLock().lock();
+            try {
+                return table.size();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        // same walk and cursor as BookingEngine.findBookings
+        List<Booking> findBookings(BookingFilter filter, int[] cursor, int limit) {
+            List<Booking> found = new ArrayList<>();
+            BookingIndex.Candidates byName = null;
+            while (found.size() < limit && cursor[0] >= 0) {
+                lock.readLock().lock();
+                try {
+                    if (byName == null && !filter.getGuestName().isEmpty()) byName = index.candidates(filter.getGuestName());
+                    int row = BookingEngine.nextMatch(table, roomsById, filter, byName, cursor);
+                    if (row >= 0) found.add(table.view(row));
+                } finally {
+                    lock.readLock().unlock();
+                }
+            }
+            return found;
+        }
+    }
+
+    public BookingReplica(String host, int port) {
+        this.host = host;
+        this.port = port;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 7070;
+        String host = args.length > 1 ? args[1] : "127.0.0.1";
+        BookingReplica replica = new BookingReplica(host, port);
+        replica.start();
+        HttpServer http = null;
+        Integer httpPort = Integer.getInteger("http.port");
+        if (httpPort != null) {
+            http = replica.startHttp(httpPort);
+            System.out.println("Read-only HTTP API listening on port " + http.getAddress().getPort() + ".");
+        }
+        boolean exitChosen = replica.run();
+        if (!exitChosen && http != null) {
+            // no console: keep serving HTTP until the process is stopped
+            Thread.currentThread().join();
+        }
+        if (http != null) http.stop(1);
+        replica.stop();
+    }
+
+    public void start() {
+        Thread t = new Thread(this::follow, "replica-feed");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    public void stop() {
+        stopped = true;
+        synchronized (this) {
+            try {
+                if (socket != null) socket.close();
+            } catch (IOException e) {
+                System.out.println("Failed to close feed connection: " + e.getMessage());
+            }
+        }
+    }
+
+    public Store getStore() {
+        return store;
+    }
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    public long getAppliedSeq() {
+        return appliedSeq;
+    }
+
+    // changes the primary has announced that are not applied yet
+    public long getBehind() {
+        return Math.max(0, primarySeq - appliedSeq);
+    }
+
+    public LatencyHistogram getLag() {
+        return lag;
+    }
+
+    // connects, replicates until the connection ends, and reconnects
+    private void follow() {
+        boolean reported = false;
+        while (!stopped) {
+            try (Socket s = new Socket(host, port);
+                 BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8), 1 << 16)) {
+                synchronized (this) {
+                    socket = s;
+                }
+                reported = false;
+                replicate(in);
+                continue;
+            } catch (IOException | RuntimeException e) {
+                if (!reported && !stopped) {
+                    System.out.println("Failed to follow primary at " + host + ":" + port + ": " + e.getMessage() + " (retrying)");
+                }
+                reported = true;
+            } finally {
+                connected = false;
+            }
+            try {
+                Thread.sleep(RETRY_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    // one connection: rooms and snapshot, then changes until the stream ends or asks for a resync
+    private void replicate(BufferedReader in) throws IOException {
+        long t0 = System.nanoTime();
+        List<Room> rooms = new ArrayList<>();
+        String line;
+        while ((line = in.readLine()) != null && line.startsWith("ROOM,")) {
+            Room r = Room.fromCSV(line.substring("ROOM,".length()));
+            if (r != null) rooms.add(r);
+        }
+        if (line == null || !line.startsWith("SNAPSHOT,")) throw new IOException("Expected a snapshot, got: " + line);
+        int rows = Integer.parseInt(line.substring("SNAPSHOT,".length()));
+        Store next = new Store(rooms);
+        for (int i = 0; i < rows; i++) {
+            if ((line = in.readLine()) == null) throw new EOFException("Snapshot ended after " + i + " of " + rows + " bookings");
+            Booking b = Booking.fromCSV(line);
+            if (b != null) next.created(b);
+        }
+        line = in.readLine();
+        if (line == null || !line.startsWith("SYNC,")) throw new IOException("Expected end of snapshot, got: " + line);
+        long seq = Long.parseLong(line.split(",")[1]);
+        store = next;
+        appliedSeq = seq;
+        primarySeq = seq;
+        connected = true;
+        snapshots++;
+        System.out.println("Replica loaded " + rows + " bookings up to change " + seq + " in "
+                + (System.nanoTime() - t0) / 1_000_000 + " ms.");
+
+        while ((line = in.readLine()) != null) {
+            if (line.equals("RESYNC")) {
+                System.out.println("Replica fell too far behind the primary; reloading.");
+                return;
+            }
+            int c1 = line.indexOf(',');
+            int c2 = line.indexOf(',', c1 + 1);
+            String type = line.substring(0, c1);
+            if (type.equals("H")) {
+                primarySeq = Math.max(primarySeq, Long.parseLong(line, c1 + 1, c2, 10));
+                continue;
+            }
+            int c3 = line.indexOf(',', c2 + 1);
+            seq = Long.parseLong(line, c1 + 1, c2, 10);
+            if (seq <= appliedSeq) continue;
+            if (seq != appliedSeq + 1) throw new IOException("Missed changes " + (appliedSeq + 1) + " to " + (seq - 1));
+            String payload = line.substring(c3 + 1);
+            if (type.equals(ChangeFeed.CREATED)) {
+                Booking b = Booking.fromCSV(payload);
+                if (b != null) next.created(b);
+            } else if (type.equals(ChangeFeed.STATUS)) {
+                int comma = payload.indexOf(',');
+                next.statusChanged(payload.substring(0, comma), payload.substring(comma + 1));
+            }
+            appliedSeq = seq;
+            primarySeq = Math.max(primarySeq, seq);
+            long lagMicros = Math.max(0, ChangeFeed.nowMicros() - Long.parseLong(line, c2 + 1, c3, 10));
+            lastLagMicros = lagMicros;
+            lag.record(lagMicros * 1000);
+        }
+    }
+
+    public String status() {
+        return String.format("%s   %d bookings   applied change %d (%d behind)   last lag %s   lag p50 %.0f us  p99 %.0f us   snapshots %d",
+                connected ? "In sync" : "Disconnected", store.size(), appliedSeq, getBehind(),
+                LatencyHistogram.formatNanos(lastLagMicros * 1000), lag.getP50Micros(), lag.getP99Micros(), snapshots);
+    }
+
+    // returns true if the user chose Exit, false if the console ran out
+    private boolean run() {
+        while (true) {
+            System.out.println("\n===== BOOKING REPLICA (read-only) =====");
+            System.out.println("1) View booking details");
+            System.out.println("2) List all bookings");
+            System.out.println("3) Replication status");
+            System.out.println("4) Exit");
+            System.out.print("Choose option: ");
+            if (!scanner.hasNextLine()) return false;
+            switch (scanner.nextLine().trim()) {
+                case "1": viewBookingDetails(); break;
+                case "2": listAllBookings(); break;
+                case "3": System.out.println(status()); break;
+                case "4": return true;
+                default: System.out.println("Invalid choice. Try again.");
+            }
+        }
+    }
+
+    private void viewBookingDetails() {
+        System.out.print("Search by (1) Booking ID or (2) Guest name: ");
+        String opt = scanner.nextLine().trim();
+        if (opt.equals("1")) {
+            System.out.print("Enter Booking ID: ");
+            Booking b = store.find(scanner.nextLine().trim());
+            if (b == null) System.out.println("Not found.");
+            else System.out.println("\n" + b);
+        } else {
+            System.out.print("Enter guest name (partial allowed): ");
+            String name = scanner.nextLine().trim();
+            System.out.println("Results:");
+            if (printPaged(new BookingFilter("", "", "", name, null, null)) == 0) {
+                System.out.println("No bookings found for that name.");
+            }
+        }
+    }
+
+    private void listAllBookings() {
+        if (store.size() == 0) {
+            System.out.println("No bookings yet.");
+            return;
+        }
+        System.out.println("Filter the list (press Enter to skip a filter):");
+        System.out.print("Status (BOOKED/CANCELLED/PAYMENT_FAILED): ");
+        String status = scanner.nextLine().trim();
+        System.out.print("Room ID: ");
+        String roomId = scanner.nextLine().trim();
+        System.out.print("Category (Standard/Deluxe/Suite): ");
+        String category = scanner.nextLine().trim();
+        LocalDate from = readOptionalDate("Staying on or after (yyyy-MM-dd): ");
+        LocalDate to = readOptionalDate("Staying on or before (yyyy-MM-dd): ");
+
+        System.out.println("\nBookings:");
+        if (printPaged(new BookingFilter(status, roomId, category, "", from, to)) == 0) {
+            System.out.println("No bookings match.");
+        }
+    }
+
+    // pages through one Store, so a resync in the middle does not shift the cursor
+    private int printPaged(BookingFilter filter) {
+        Store s = store;
+        int[] cursor = {0};
+        int shown = 0;
+        while (true) {
+            for (Booking b : s.findBookings(filter, cursor, PAGE_SIZE)) {
+                System.out.println("--------------------");
+                System.out.println(b);
+                shown++;
+            }
+            if (cursor[0] < 0) break;
+            System.out.print("-- " + shown + " shown. Press Enter for more or q to stop: ");
+            if (scanner.nextLine().trim().equalsIgnoreCase("q")) break;
+        }
+        return shown;
+    }
+
+    private LocalDate readOptionalDate(String prompt) {
+        while (true) {
+            System.out.print(prompt);
+            String s = scanner.nextLine().trim();
+            if (s.isEmpty()) return null;
+            try {
+                return LocalDate.parse(s, fmt);
+            } catch (Exception e) {
+                System.out.println("Invalid date format. Use yyyy-MM-dd (example: 2025-12-01).");
+            }
+        }
+    }
+
+    HttpServer startHttp(int port) throws IOException {
+        ExecutorService executor = PaymentPipeline.newTaskExecutor("replica-http");
+        HttpServer server = HotelHttpServer.newServer(port, executor);
+        server.createContext("/bookings", ex -> HotelHttpServer.handle(ex, this::bookings));
+        server.createContext("/replication", ex -> HotelHttpServer.handle(ex, this::replication));
+        server.start();
+        return server;
+    }
+
+    private HotelHttpServer.Response bookings(HttpExchange ex, Map<String, String> q) {
+        if (!ex.getRequestMethod().equals("GET")) return HotelHttpServer.error(405, "Read-only replica: use GET");
+        String path = ex.getRequestURI().getPath();
+        String id = path.length() > "/bookings/".length() ? path.substring("/bookings/".length()) : "";
+        if (!id.isEmpty()) {
+            Booking b = store.find(id);
+            if (b == null) return HotelHttpServer.error(404, "Booking not found");
+            return new HotelHttpServer.Response(200, HotelHttpServer.bookingJson(b));
+        }
+        return HotelHttpServer.search(q, store::findBookings);
+    }
+
+    private HotelHttpServer.Response replication(HttpExchange ex, Map<String, String> q) {
+        if (!ex.getRequestMethod().equals("GET")) return HotelHttpServer.error(405, "Use GET");
+        return new HotelHttpServer.Response(200, "{\"connected\":" + connected +
+                ",\"bookings\":" + store.size() +
+                ",\"appliedSeq\":" + appliedSeq +
+                ",\"behind\":" + getBehind() +
+                ",\"lastLagMicros\":" + lastLagMicros +
+                ",\"lagP50Micros\":" + Math.round(lag.getP50Micros()) +
+                ",\"lagP99Micros\":" + Math.round(lag.getP99Micros()) +
+                ",\"snapshots\":" + snapshots + "}");
+    }
+}
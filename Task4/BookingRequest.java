@@ -0,0 +1,32 @@
+import java.time.LocalDate;
+
+// A reservation asked for without a clerk: a specific room, or any room of a category.
+public class BookingRequest {
+    private final String category;
+    private final String roomId;
+    private final String guestName;
+    private final String guestPhone;
+    private final LocalDate checkIn;
+    private final LocalDate checkOut;
+
+    public BookingRequest(String category, String roomId, String guestName, String guestPhone,
+                          LocalDate checkIn, LocalDate checkOut) {
+        this.category = category == null || category.isEmpty() ? "ALL" : category;
+        this.roomId = roomId == null ? "" : roomId;
+        this.guestName = guestName;
+        this.guestPhone = guestPhone;
+        this.checkIn = checkIn;
+        this.checkOut = checkOut;
+    }
+
+    public String getCategory() { return category; }
+    public String getRoomId() { return roomId; }
+    public String getGuestName() { return guestName; }
+    public String getGuestPhone() { return guestPhone; }
+    public LocalDate getCheckIn() { return checkIn; }
+    public LocalDate getCheckOut() { return checkOut; }
+
+    public String toString() {
+        return (roomId.isEmpty() ? category : roomId) + " " + checkIn + " -> " + checkOut + " for " + guestName;
+    }
+}
@@ -0,0 +1,25 @@
+// Booking counts for one engine plus the process-wide payment outcome counters. Counts come
+// from the booking table's per-status tallies, so reading them does not scan bookings.
+public class BookingStats implements BookingStatsMBean {
+    private final BookingEngine engine;
+
+    public BookingStats(BookingEngine engine) {
+        this.engine = engine;
+    }
+
+    public int getRooms() { return engine.getRooms().size(); }
+    public int getBookings() { return engine.bookingCount(); }
+    public int getBooked() { return engine.countByStatus("BOOKED"); }
+    public int getPendingPayment() { return engine.countByStatus("PENDING_PAYMENT"); }
+    public int getCancelled() { return engine.countByStatus("CANCELLED"); }
+    public int getPaymentFailed() { return engine.countByStatus("PAYMENT_FAILED"); }
+    public int getActiveHolds() { return engine.activeHolds(); }
+    public int getArchived() { return engine.archivedCount(); }
+    public long getPaymentAttempts() { return HotelMetrics.PAYMENT_APPROVED.sum() + HotelMetrics.PAYMENT_DECLINED.sum(); }
+    public long getPaymentApproved() { return HotelMetrics.PAYMENT_APPROVED.sum(); }
+
+    public double getPaymentSuccessRate() {
+        long attempts = getPaymentAttempts();
+        return attempts == 0 ? 0 : (double) getPaymentApproved() / attempts;
+    }
+}
@@ -0,0 +1,14 @@
+// JMX view of an engine's data and payment outcomes, registered as hotel:type=Bookings,name=<engine>
+public interface BookingStatsMBean {
+    int getRooms();
+    int getBookings();
+    int getBooked();
+    int getPendingPayment();
+    int getCancelled();
+    int getPaymentFailed();
+    int getActiveHolds();
+    int getArchived();
+    long getPaymentAttempts();
+    long getPaymentApproved();
+    double getPaymentSuccessRate();
+}
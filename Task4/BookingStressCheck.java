@@ -0,0 +1,75 @@
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Hammers one BookingEngine from many threads over a small date window and verifies that
+// no room ended up with two overlapping BOOKED stays.
+// Usage: java BookingStressCheck [threads] [attemptsPerThread] [rooms]
+public class BookingStressCheck {
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int attempts = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        int roomCount = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+
+        Path dir = Files.createTempDirectory("booking-stress");
+        BookingEngine engine = new BookingEngine(dir);
+        List<Room> rooms = new ArrayList<>();
+        for (int i = 0; i < roomCount; i++) rooms.add(new Room("S" + i, i % 2 == 0 ? "Standard" : "Suite", 1000 + i));
+        engine.setRooms(rooms);
+
+        LocalDate base = LocalDate.of(2030, 1, 1);
+        AtomicInteger reserved = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch startGate = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(pool.submit(() -> {
+                ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                startGate.await();
+                for (int i = 0; i < attempts; i++) {
+                    Room room = rooms.get(rnd.nextInt(rooms.size()));
+                    LocalDate start = base.plusDays(rnd.nextInt(60));
+                    LocalDate end = start.plusDays(rnd.nextInt(5));
+                    Booking b = Booking.createNew(room.getId(), "Guest " + i, "000", start, end,
+                            engine.calculateTotalPrice(room, start, end.plusDays(1)));
+                    if (!engine.reserve(b)) {
+                        rejected.incrementAndGet();
+                        continue;
+                    }
+                    reserved.incrementAndGet();
+                    int outcome = rnd.nextInt(10);
+                    if (outcome == 0) engine.release(b);
+                    else engine.completePayment(b, outcome > 1);
+                    if (outcome == 9) engine.cancel(b);
+                }
+                return null;
+            }));
+        }
+        long t0 = System.nanoTime();
+        startGate.countDown();
+        for (Future<?> f : futures) f.get();
+        long nanos = System.nanoTime() - t0;
+        pool.shutdown();
+
+        int overlaps = 0;
+        Map<String, List<Booking>> byRoom = new HashMap<>();
+        for (Booking b : engine.getBookings()) {
+            if (b.getStatus().equals("BOOKED")) byRoom.computeIfAbsent(b.getRoomId(), k -> new ArrayList<>()).add(b);
+        }
+        for (List<Booking> list : byRoom.values()) {
+            list.sort(Comparator.comparing(Booking::getStartDate));
+            for (int i = 1; i < list.size(); i++) {
+                if (!list.get(i).getStartDate().isAfter(list.get(i - 1).getEndDate())) overlaps++;
+            }
+        }
+
+        int total = threads * attempts;
+        System.out.println("Attempts: " + total + " (reserved " + reserved.get() + ", rejected " + rejected.get() + ")");
+        System.out.println("Throughput: " + (long) (total * 1e9 / nanos) + " attempts/sec");
+        System.out.println("Overlapping BOOKED stays: " + overlaps);
+        if (overlaps > 0) System.exit(1);
+    }
+}
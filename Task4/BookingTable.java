@@ -0,0 +1,307 @@
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Column store for recorded bookings: one primitive array per field instead of a Booking object
+// (with its UUID text, two LocalDates and status string) per row.
+//   id      : UUID as two longs; ids that are not canonical UUIDs are kept in a side map
+//   room    : index into the room id pool
+//   start/end : epoch days, end inclusive
+//   price   : hundredths; prices that do not survive that round trip keep their raw double bits
+//   status  : code into a small status dictionary whose first entries are the known statuses
+// Booking objects are only made on request, as views onto a row. Rows are appended under the
+// owner's write lock and setStatus runs under its read lock, so a status change never lands in
+// an array that append is about to replace.
+public class BookingTable {
+    private static final long PRICE_SCALE = 100;
+    private static final byte FLAG_PRICE_RAW = 1;
+    private static final byte FLAG_ID_TEXT = 2;
+
+    private int size;
+    // Views read these without the owner's lock, so grow() publishes each new array through a
+    // volatile field; rows a view can see were written before it was handed out under that lock.
+    private volatile long[] idHi = new long[16];
+    private volatile long[] idLo = new long[16];
+    private volatile int[] room = new int[16];
+    private volatile int[] start = new int[16];
+    private volatile int[] end = new int[16];
+    private volatile long[] price = new long[16];
+    private volatile byte[] status = new byte[16];
+    private volatile byte[] flags = new byte[16];
+    private volatile String[] guestName = new String[16];
+    private volatile String[] guestPhone = new String[16];
+
+    // the pools are read by views too; both only grow, and rarely
+    private final List<String> roomIds = new CopyOnWriteArrayList<>();
+    private final Map<String, Integer> roomCodes = new HashMap<>();
+    private final List<String> statuses = new CopyOnWriteArrayList<>();
+    private final Map<String, Integer> statusCodes = new HashMap<>();
+    private boolean[] statusOccupies = new boolean[0];
+    private int[] statusRows = new int[0];
+    private final Map<Integer, String> idText = new ConcurrentHashMap<>();
+    private final Map<String, Integer> rowByIdText = new HashMap<>();
+    // open addressing over (idHi, idLo) -> row + 1, 0 = empty
+    private int[] idSlots = new int[32];
+    // rows of each room code in insertion order
+    private int[][] roomRows = new int[0][];
+    private int[] roomRowCount = new int[0];
+
+    public BookingTable() {
+        for (String s : Booking.KNOWN_STATUSES) statusCode(s);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int append(Booking b) {
+        if (size == idHi.length) grow();
+        int row = size;
+        UUID uuid = Booking.canonicalUuid(b.getBookingId());
+        if (uuid != null) {
+            idHi[row] = uuid.getMostSignificantBits();
+            idLo[row] = uuid.getLeastSignificantBits();
+        } else {
+            flags[row] |= FLAG_ID_TEXT;
+            idText.put(row, b.getBookingId());
+            rowByIdText.put(b.getBookingId(), row);
+        }
+        int roomCode = roomCode(b.getRoomId());
+        room[row] = roomCode;
+        start[row] = (int) b.getStartDate().toEpochDay();
+        end[row] = (int) b.getEndDate().toEpochDay();
+        long fixed = Math.round(b.getTotalPrice() * PRICE_SCALE);
+        if (Double.doubleToLongBits((double) fixed / PRICE_SCALE) == Double.doubleToLongBits(b.getTotalPrice())) {
+            price[row] = fixed;
+        } else {
+            flags[row] |= FLAG_PRICE_RAW;
+            price[row] = Double.doubleToRawLongBits(b.getTotalPrice());
+        }
+        status[row] = (byte) statusCode(b.getStatus());
+        statusRows[status[row]]++;
+        guestName[row] = b.getGuestName();
+        guestPhone[row] = b.getGuestPhone();
+        size++;
+        if (uuid != null) putIdSlot(row);
+        addRoomRow(roomCode, row);
+        return row;
+    }
+
+    // row of the booking id, or -1
+    public int find(String bookingId) {
+        UUID uuid = Booking.canonicalUuid(bookingId);
+        if (uuid == null) {
+            Integer row = rowByIdText.get(bookingId);
+            return row == null ? -1 : row;
+        }
+        long hi = uuid.getMostSignificantBits();
+        long lo = uuid.getLeastSignificantBits();
+        int mask = idSlots.length - 1;
+        for (int i = slot(hi, lo) & mask; idSlots[i] != 0; i = (i + 1) & mask) {
+            int row = idSlots[i] - 1;
+            if (idHi[row] == hi && idLo[row] == lo && (flags[row] & FLAG_ID_TEXT) == 0) return row;
+        }
+        return -1;
+    }
+
+    public Booking view(int row) {
+        return new Booking(this, row);
+    }
+
+    // read-only list of views over the current rows; each get makes a new view
+    public List<Booking> asList() {
+        return new AbstractList<Booking>() {
+            public Booking get(int row) {
+                return view(row);
+            }
+
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    public String bookingId(int row) {
+        return (flags[row] & FLAG_ID_TEXT) != 0 ? idText.get(row) : new UUID(idHi[row], idLo[row]).toString();
+    }
+
+    public String roomId(int row) { return roomIds.get(room[row]); }
+    public String guestName(int row) { return guestName[row]; }
+    public String guestPhone(int row) { return guestPhone[row]; }
+    public int startDay(int row) { return start[row]; }
+    public int endDay(int row) { return end[row]; }
+    public LocalDate startDate(int row) { return LocalDate.ofEpochDay(start[row]); }
+    public LocalDate endDate(int row) { return LocalDate.ofEpochDay(end[row]); }
+    public String status(int row) { return statuses.get(status[row]); }
+
+    public double totalPrice(int row) {
+        return (flags[row] & FLAG_PRICE_RAW) != 0 ? Double.longBitsToDouble(price[row]) : (double) price[row] / PRICE_SCALE;
+    }
+
+    public boolean occupiesRoom(int row) {
+        return statusOccupies[status[row]];
+    }
+
+    public synchronized void setStatus(int row, String s) {
+        statusRows[status[row]]--;
+        status[row] = (byte) statusCode(s);
+        statusRows[status[row]]++;
+    }
+
+    // rows whose status is exactly `s`
+    public synchronized int countByStatus(String s) {
+        Integer code = statusCodes.get(s);
+        return code == null ? 0 : statusRows[code];
+    }
+
+    public int roomCodeOf(String roomId) {
+        Integer code = roomCodes.get(roomId);
+        return code == null ? -1 : code;
+    }
+
+    public int roomCodeAt(int row) {
+        return room[row];
+    }
+
+    public int rowCount(int roomCode) {
+        return roomCode < 0 || roomCode >= roomRowCount.length ? 0 : roomRowCount[roomCode];
+    }
+
+    public int rowOf(int roomCode, int i) {
+        return roomRows[roomCode][i];
+    }
+
+    // first row >= fromRow of the room, or -1; a room's rows are kept in ascending order
+    public int nextRowOfRoom(int roomCode, int fromRow) {
+        int n = rowCount(roomCode);
+        if (n == 0) return -1;
+        int i = Arrays.binarySearch(roomRows[roomCode], 0, n, fromRow);
+        if (i < 0) i = -i - 1;
+        return i < n ? roomRows[roomCode][i] : -1;
+    }
+
+    // writes the same text as Booking.toString into `out` without building intermediate strings
+    public void appendDetails(int row, StringBuilder out) {
+        out.append("BookingID: ");
+        if ((flags[row] & FLAG_ID_TEXT) != 0) out.append(idText.get(row));
+        else appendUuid(idHi[row], idLo[row], out);
+        out.append("\nRoom: ").append(roomIds.get(room[row]))
+           .append("\nGuest: ").append(guestName[row])
+           .append("\nPhone: ").append(guestPhone[row])
+           .append("\nFrom: ");
+        appendDate(start[row], out);
+        out.append(" To: ");
+        appendDate(end[row], out);
+        out.append("\nTotal: ₹").append(totalPrice(row))
+           .append("\nStatus: ").append(statuses.get(status[row]));
+    }
+
+    private static void appendUuid(long hi, long lo, StringBuilder out) {
+        appendHex(hi >>> 32, 8, out);
+        out.append('-');
+        appendHex(hi >>> 16, 4, out);
+        out.append('-');
+        appendHex(hi, 4, out);
+        out.append('-');
+        appendHex(lo >>> 48, 4, out);
+        out.append('-');
+        appendHex(lo, 12, out);
+    }
+
+    private static void appendHex(long v, int digits, StringBuilder out) {
+        for (int shift = (digits - 1) * 4; shift >= 0; shift -= 4) {
+            out.append(Character.forDigit((int) (v >>> shift) & 0xF, 16));
+        }
+    }
+
+    // ISO yyyy-MM-dd for years 0..9999, LocalDate's own text otherwise
+    private static void appendDate(int epochDay, StringBuilder out) {
+        // civil-from-days (Howard Hinnant), valid for the proleptic Gregorian calendar
+        long z = epochDay + 719468L;
+        long era = Math.floorDiv(z, 146097);
+        long doe = z - era * 146097;
+        long yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+        long doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        long mp = (5 * doy + 2) / 153;
+        int d = (int) (doy - (153 * mp + 2) / 5 + 1);
+        int m = (int) (mp < 10 ? mp + 3 : mp - 9);
+        long y = yoe + era * 400 + (m <= 2 ? 1 : 0);
+        if (y < 0 || y > 9999) {
+            out.append(LocalDate.ofEpochDay(epochDay));
+            return;
+        }
+        out.append((char) ('0' + y / 1000)).append((char) ('0' + y / 100 % 10))
+           .append((char) ('0' + y / 10 % 10)).append((char) ('0' + y % 10)).append('-')
+           .append((char) ('0' + m / 10)).append((char) ('0' + m % 10)).append('-')
+           .append((char) ('0' + d / 10)).append((char) ('0' + d % 10));
+    }
+
+    private int roomCode(String roomId) {
+        Integer code = roomCodes.get(roomId);
+        if (code != null) return code;
+        roomCodes.put(roomId, roomIds.size());
+        roomIds.add(roomId);
+        return roomIds.size() - 1;
+    }
+
+    private int statusCode(String s) {
+        Integer code = statusCodes.get(s);
+        if (code != null) return code;
+        if (statuses.size() > Byte.MAX_VALUE) throw new IllegalStateException("Too many distinct booking statuses");
+        statusCodes.put(s, statuses.size());
+        statuses.add(s);
+        statusOccupies = Arrays.copyOf(statusOccupies, statuses.size());
+        statusOccupies[statuses.size() - 1] = Booking.occupiesRoom(s);
+        statusRows = Arrays.copyOf(statusRows, statuses.size());
+        return statuses.size() - 1;
+    }
+
+    private void addRoomRow(int roomCode, int row) {
+        if (roomCode >= roomRows.length) {
+            roomRows = Arrays.copyOf(roomRows, Math.max(roomCode + 1, roomRows.length * 2));
+            roomRowCount = Arrays.copyOf(roomRowCount, roomRows.length);
+        }
+        int[] rows = roomRows[roomCode];
+        int n = roomRowCount[roomCode];
+        if (rows == null) rows = roomRows[roomCode] = new int[4];
+        else if (n == rows.length) rows = roomRows[roomCode] = Arrays.copyOf(rows, n * 2);
+        rows[n] = row;
+        roomRowCount[roomCode] = n + 1;
+    }
+
+    private void putIdSlot(int row) {
+        if (size * 2 > idSlots.length) {
+            int[] old = idSlots;
+            idSlots = new int[old.length * 2];
+            for (int v : old) if (v != 0) insertSlot(v - 1);
+        }
+        insertSlot(row);
+    }
+
+    private void insertSlot(int row) {
+        int mask = idSlots.length - 1;
+        int i = slot(idHi[row], idLo[row]) & mask;
+        while (idSlots[i] != 0) i = (i + 1) & mask;
+        idSlots[i] = row + 1;
+    }
+
+    private static int slot(long hi, long lo) {
+        long h = hi * 0x9E3779B97F4A7C15L ^ lo;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private void grow() {
+        int n = idHi.length * 2;
+        idHi = Arrays.copyOf(idHi, n);
+        idLo = Arrays.copyOf(idLo, n);
+        room = Arrays.copyOf(room, n);
+        start = Arrays.copyOf(start, n);
+        end = Arrays.copyOf(end, n);
+        price = Arrays.copyOf(price, n);
+        status = Arrays.copyOf(status, n);
+        flags = Arrays.copyOf(flags, n);
+        guestName = Arrays.copyOf(guestName, n);
+        guestPhone = Arrays.copyOf(guestPhone, n);
+    }
+}
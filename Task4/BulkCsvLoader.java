@@ -0,0 +1,215 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class BulkCsvLoader {
+    private static final int MIN_CHUNK = 1 << 20;
+    private static final int MAX_CHUNK = 1 << 28;
+    private static final double[] POW10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    public static class Result<T> {
+        private final List<T> rows;
+        private final long nanos;
+
+        Result(List<T> rows, long nanos) {
+            this.rows = rows;
+            this.nanos = nanos;
+        }
+
+        public List<T> getRows() { return rows; }
+        public long getNanos() { return nanos; }
+
+        public long rowsPerSecond() {
+            return nanos == 0 ? rows.size() : (long) (rows.size() * 1_000_000_000.0 / nanos);
+        }
+    }
+
+    private interface LineParser<T> {
+        T parse(ByteBuffer buf, int from, int to, byte[] scratch);
+    }
+
+    public static Result<Booking> loadBookings(Path file) throws IOException {
+        return load(file, BulkCsvLoader::parseBooking);
+    }
+
+    public static Result<Room> loadRooms(Path file) throws IOException {
+        return load(file, (buf, from, to, scratch) -> Room.fromCSV(decode(buf, from, to, scratch)));
+    }
+
+    private static <T> Result<T> load(Path file, LineParser<T> parser) throws IOException {
+        long t0 = System.nanoTime();
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long[] bounds = chunkBounds(ch);
+            List<List<T>> parts;
+            try {
+                parts = IntStream.range(0, bounds.length - 1).parallel()
+                        .mapToObj(i -> parseChunk(ch, bounds[i], bounds[i + 1], parser))
+                        .collect(Collectors.toList());
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            int total = 0;
+            for (List<T> p : parts) total += p.size();
+            List<T> rows = new ArrayList<>(total);
+            for (List<T> p : parts) rows.addAll(p);
+            return new Result<>(rows, System.nanoTime() - t0);
+        }
+    }
+
+    // cut points sit just after a '\n' so every chunk holds whole lines
+    private static long[] chunkBounds(FileChannel ch) throws IOException {
+        long size = ch.size();
+        int target = Runtime.getRuntime().availableProcessors() * 4;
+        long chunk = Math.max(MIN_CHUNK, Math.min(MAX_CHUNK, size / target + 1));
+        List<Long> cuts = new ArrayList<>();
+        cuts.add(0L);
+        long pos = chunk;
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        while (pos < size) {
+            long nl = -1;
+            long p = pos;
+            while (nl < 0 && p < size) {
+                probe.clear();
+                int n = ch.read(probe, p);
+                if (n <= 0) break;
+                for (int i = 0; i < n; i++) {
+                    if (probe.get(i) == '\n') {
+                        nl = p + i;
+                        break;
+                    }
+                }
+                p += n;
+            }
+            if (nl < 0) break;
+            cuts.add(nl + 1);
+            pos = nl + 1 + chunk;
+        }
+        if (cuts.get(cuts.size() - 1) < size) cuts.add(size);
+        long[] bounds = new long[cuts.size()];
+        for (int i = 0; i < bounds.length; i++) bounds[i] = cuts.get(i);
+        return bounds;
+    }
+
+    private static <T> List<T> parseChunk(FileChannel ch, long start, long end, LineParser<T> parser) {
+        MappedByteBuffer buf;
+        try {
+            buf = ch.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        List<T> out = new ArrayList<>();
+        byte[] scratch = new byte[256];
+        int limit = buf.limit();
+        int lineStart = 0;
+        for (int i = 0; i <= limit; i++) {
+            if (i < limit && buf.get(i) != '\n') continue;
+            if (i == limit && lineStart == limit) break;
+            int lineEnd = i;
+            if (lineEnd > lineStart && buf.get(lineEnd - 1) == '\r') lineEnd--;
+            T row = parser.parse(buf, lineStart, lineEnd, scratch);
+            if (row != null) out.add(row);
+            lineStart = i + 1;
+        }
+        return out;
+    }
+
+    // same result as Booking.fromCSV; anything off the fast path is handed to it verbatim
+    static Booking parseBooking(ByteBuffer buf, int from, int to, byte[] scratch) {
+        int[] commas = new int[7];
+        int found = 0;
+        for (int i = from; i < to && found < 7; i++) {
+            if (buf.get(i) == ',') commas[found++] = i;
+        }
+        if (found < 7) return null;
+        int statusEnd = commas[6] + 1;
+        while (statusEnd < to && buf.get(statusEnd) != ',') statusEnd++;
+
+        LocalDate start = parseIsoDate(buf, commas[3] + 1, commas[4]);
+        LocalDate end = parseIsoDate(buf, commas[4] + 1, commas[5]);
+        if (start == null || end == null) return Booking.fromCSV(decode(buf, from, to, scratch));
+        double total = parseDouble(buf, commas[5] + 1, commas[6], scratch);
+
+        String bookingId = field(buf, from, commas[0], scratch);
+        String roomId = field(buf, commas[0] + 1, commas[1], scratch);
+        String guestName = field(buf, commas[1] + 1, commas[2], scratch);
+        String guestPhone = field(buf, commas[2] + 1, commas[3], scratch);
+        String status = field(buf, commas[6] + 1, statusEnd, scratch);
+        return new Booking(bookingId, roomId, guestName, guestPhone, start, end, total, status);
+    }
+
+    static LocalDate parseIsoDate(ByteBuffer buf, int from, int to) {
+        if (to - from != 10 || buf.get(from + 4) != '-' || buf.get(from + 7) != '-') return null;
+        int y = digits(buf, from, from + 4);
+        int m = digits(buf, from + 5, from + 7);
+        int d = digits(buf, from + 8, from + 10);
+        if (y < 0 || m < 0 || d < 0) return null;
+        try {
+            return LocalDate.of(y, m, d);
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    private static int digits(ByteBuffer buf, int from, int to) {
+        int v = 0;
+        for (int i = from; i < to; i++) {
+            int c = buf.get(i) - '0';
+            if (c < 0 || c > 9) return -1;
+            v = v * 10 + c;
+        }
+        return v;
+    }
+
+    // plain decimals with at most 15 significant digits are exact as mantissa / 10^k,
+    // everything else (exponents, NaN, long fractions) goes through Double.parseDouble
+    static double parseDouble(ByteBuffer buf, int from, int to, byte[] scratch) {
+        int i = from;
+        boolean neg = false;
+        if (i < to && (buf.get(i) == '-' || buf.get(i) == '+')) {
+            neg = buf.get(i) == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digitCount = 0;
+        int fraction = -1;
+        for (; i < to; i++) {
+            byte c = buf.get(i);
+            if (c == '.' && fraction < 0) {
+                fraction = 0;
+                continue;
+            }
+            if (c < '0' || c > '9' || digitCount == 15) {
+                return Double.parseDouble(decode(buf, from, to, scratch));
+            }
+            mantissa = mantissa * 10 + (c - '0');
+            digitCount++;
+            if (fraction >= 0) fraction++;
+        }
+        if (digitCount == 0) return Double.parseDouble(decode(buf, from, to, scratch));
+        double v = fraction > 0 ? mantissa / POW10[fraction] : mantissa;
+        return neg ? -v : v;
+    }
+
+    private static String field(ByteBuffer buf, int from, int to, byte[] scratch) {
+        return Booking.unescape(decode(buf, from, to, scratch));
+    }
+
+    static String decode(ByteBuffer buf, int from, int to, byte[] scratch) {
+        int len = to - from;
+        byte[] b = len <= scratch.length ? scratch : new byte[len];
+        buf.get(from, b, 0, len);
+        return new String(b, 0, len, StandardCharsets.UTF_8);
+    }
+}
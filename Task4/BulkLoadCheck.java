@@ -0,0 +1,76 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.util.*;
+
+// Writes a bookings file with the awkward rows real files pick up (CRLF line ends, escaped
+// commas in names, extra trailing fields, exponent and long-fraction prices, ids that are not
+// UUIDs, short lines) and checks that BulkCsvLoader returns exactly what the plain reader it
+// replaced does: BufferedReader.readLine and Booking.fromCSV, row for row and in file order.
+// Exits non-zero on the first difference.
+// Usage: java BulkLoadCheck [rows]
+public class BulkLoadCheck {
+    public static void main(String[] args) throws IOException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+
+        Path file = Files.createTempFile("bulk-load-check", ".csv");
+        try {
+            write(file, rows);
+            System.out.println("Wrote " + rows + " lines, " + Files.size(file) / (1024 * 1024) + " MB");
+
+            BulkCsvLoader.Result<Booking> bulk = BulkCsvLoader.loadBookings(file);
+            System.out.println("BulkCsvLoader: " + bulk.getRows().size() + " bookings, " + bulk.rowsPerSecond() + " rows/sec");
+
+            // the plain reader's rows are compared as they are read, so only one list is held
+            List<Booking> rowsRead = bulk.getRows();
+            int row = 0;
+            try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                for (String line; (line = in.readLine()) != null; ) {
+                    Booking expected = Booking.fromCSV(line);
+                    if (expected == null) continue;
+                    // toCSV prints the price with Double.toString, so equal text means equal doubles
+                    String problem = row >= rowsRead.size() ? "missing row " + (row + 1)
+                            : rowsRead.get(row).toCSV().equals(expected.toCSV()) ? null
+                            : "row " + (row + 1) + ": " + rowsRead.get(row).toCSV() + " / " + expected.toCSV();
+                    if (problem != null) fail(problem);
+                    row++;
+                }
+            }
+            if (row != rowsRead.size()) fail("rows " + rowsRead.size() + " != " + row);
+            System.out.println("All " + row + " bookings matched the line reader.");
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static void write(Path file, int rows) throws IOException {
+        Random rnd = new Random(7);
+        LocalDate base = LocalDate.of(2026, 1, 1);
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < rows; i++) {
+                int kind = rnd.nextInt(100);
+                String id = kind == 0 ? "legacy-" + i : new UUID(rnd.nextLong(), rnd.nextLong()).toString();
+                String name = kind == 1 ? "Doe&#44; Jane " + i : "Guest " + Integer.toString(i, 36);
+                LocalDate start = base.plusDays(rnd.nextInt(2000));
+                String price;
+                if (kind == 2) price = (rnd.nextInt(9000) + 1000) + "e0";
+                else if (kind == 3) price = String.valueOf(rnd.nextDouble() * 10_000);
+                else if (kind == 4) price = "1234.5678901234567";
+                else price = (rnd.nextInt(900_000) + 1000) / 100 + "." + rnd.nextInt(100);
+                String line = id + ",R" + rnd.nextInt(300) + "," + name + ",98" + (10_000_000 + i) + ","
+                        + start + "," + start.plusDays(rnd.nextInt(5)) + "," + price + ","
+                        + (kind < 90 ? "BOOKED" : kind < 95 ? "CANCELLED" : "PAYMENT_FAILED");
+                if (kind == 5) line += ",extra,fields";
+                if (kind == 6) line = id + ",R1,short line";
+                out.write(line);
+                out.write(kind == 7 || kind == 8 ? "\r\n" : "\n");
+            }
+        }
+    }
+
+    private static void fail(String problem) {
+        System.out.println("Mismatch: " + problem);
+        System.exit(1);
+    }
+}
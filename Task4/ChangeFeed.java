@@ -0,0 +1,95 @@
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.*;
+
+// Ordered stream of changes to recorded bookings, for read replicas. The engine publishes while
+// it holds its catalog write lock, so sequence numbers follow the order changes were journaled:
+//   C,<seq>,<micros>,<booking csv>     a booking was recorded (BOOKED or PAYMENT_FAILED)
+//   S,<seq>,<micros>,<id>,<status>     a recorded booking changed status
+// <micros> is the wall clock at publish time, so a replica on the same host can measure its lag.
+// Every subscriber has a bounded queue. Publishing never waits: a subscriber whose queue is full
+// is dropped and has to start again from a snapshot, so a slow replica costs the booking path
+// nothing and no replica is ever more than its queue size behind.
+public class ChangeFeed {
+    public static final String CREATED = "C";
+    public static final String STATUS = "S";
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private long seq;
+
+    public static class Subscriber {
+        private final BlockingQueue<String> queue;
+        private final long startSeq;
+        private final int snapshotRows;
+        private volatile boolean dropped;
+
+        Subscriber(int capacity, long startSeq, int snapshotRows) {
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.startSeq = startSeq;
+            this.snapshotRows = snapshotRows;
+        }
+
+        // sequence number of the last change the snapshot already includes
+        public long getStartSeq() { return startSeq; }
+        // table rows [0, snapshotRows) make up the snapshot
+        public int getSnapshotRows() { return snapshotRows; }
+        public boolean isDropped() { return dropped; }
+        public int backlog() { return queue.size(); }
+
+        // next event line, or null if none arrived within the timeout
+        public String poll(long timeoutMillis) throws InterruptedException {
+            return queue.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public void created(Booking b) {
+        publish(CREATED, b.toCSV());
+    }
+
+    public void statusChanged(Booking b) {
+        publish(STATUS, b.getBookingId() + "," + b.getStatus());
+    }
+
+    private synchronized void publish(String type, String payload) {
+        seq++;
+        if (subscribers.isEmpty()) return;
+        String event = type + "," + seq + "," + nowMicros() + "," + payload;
+        for (Subscriber s : subscribers) {
+            if (!s.queue.offer(event)) drop(s);
+        }
+    }
+
+    // caller keeps changes out until the snapshot's extent is fixed (the engine's catalog lock)
+    public synchronized Subscriber subscribe(int capacity, int snapshotRows) {
+        Subscriber s = new Subscriber(capacity, seq, snapshotRows);
+        subscribers.add(s);
+        return s;
+    }
+
+    public void unsubscribe(Subscriber s) {
+        subscribers.remove(s);
+    }
+
+    // drops every subscriber, e.g. when the room list is replaced and replicas must start over
+    public synchronized void reset() {
+        for (Subscriber s : subscribers) drop(s);
+    }
+
+    public synchronized long currentSeq() {
+        return seq;
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    private void drop(Subscriber s) {
+        s.dropped = true;
+        subscribers.remove(s);
+    }
+
+    static long nowMicros() {
+        return ChronoUnit.MICROS.between(Instant.EPOCH, Instant.now());
+    }
+}
@@ -0,0 +1,73 @@
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.util.*;
+
+// Books guests whose names and phones carry line breaks, one of them shaped like a journal
+// status record for another booking, and checks that every booking comes back unchanged after
+// a restart that replays the journal and after one that reads the compacted snapshot, and that
+// the HTTP API refuses such details with a 400-style reason.
+// Exits non-zero on the first difference.
+// Usage: java GuestTextCheck
+public class GuestTextCheck {
+    public static void main(String[] args) throws Exception {
+        Path dir = Files.createTempDirectory("guest-text-check");
+        BookingEngine engine = new BookingEngine(dir);
+        engine.load();
+        Room room = engine.getRooms().get(0);
+        LocalDate start = LocalDate.now().plusDays(10);
+
+        Booking victim = book(engine, room, "Bob", "555", start);
+        List<Booking> booked = new ArrayList<>();
+        booked.add(victim);
+        booked.add(book(engine, room, "Alice\nS,x", "98\r\n76", start.plusDays(2)));
+        booked.add(book(engine, room, "Eve\nS," + victim.getBookingId() + ",CANCELLED", "1,2", start.plusDays(4)));
+        booked.add(book(engine, room, "Carol\r\n\rC,junk", "", start.plusDays(6)));
+
+        List<String> expected = new ArrayList<>();
+        for (Booking b : booked) expected.add(b.toCSV());
+
+        // first restart replays the journal, second reads the snapshot it was compacted into
+        compare("journal replay", reload(dir), booked, expected);
+        engine = reload(dir);
+        engine.saveBookings();
+        compare("snapshot reload", reload(dir), booked, expected);
+
+        String reason = BookingEngine.checkGuestDetails("Alice\nS,x", "555");
+        if (reason == null) fail("a guest name with a line break was accepted for storage");
+        if (BookingEngine.checkGuestDetails("Ana María O'Neil, Jr.", "+91 98 7654") != null) {
+            fail("an ordinary guest name was refused");
+        }
+        System.out.println("All " + booked.size() + " bookings survived both restarts; HTTP refuses: " + reason);
+    }
+
+    private static Booking book(BookingEngine engine, Room room, String name, String phone, LocalDate start) {
+        Booking b = Booking.createNew(room.getId(), name, phone, start, start.plusDays(1),
+                engine.calculateTotalPrice(room, start, start.plusDays(2)));
+        if (!engine.reserve(b)) fail("could not reserve " + start);
+        engine.completePayment(b, true);
+        return b;
+    }
+
+    private static BookingEngine reload(Path dir) {
+        BookingEngine engine = new BookingEngine(dir);
+        engine.load();
+        return engine;
+    }
+
+    private static void compare(String stage, BookingEngine engine, List<Booking> booked, List<String> expected) {
+        if (engine.bookingCount() != booked.size()) {
+            fail(stage + ": " + engine.bookingCount() + " bookings, expected " + booked.size());
+        }
+        for (int i = 0; i < booked.size(); i++) {
+            Booking found = engine.findBookingById(booked.get(i).getBookingId());
+            if (found == null) fail(stage + ": lost " + expected.get(i));
+            if (!found.toCSV().equals(expected.get(i))) fail(stage + ": " + found.toCSV() + " != " + expected.get(i));
+            if (!found.getGuestName().equals(booked.get(i).getGuestName())) fail(stage + ": guest name changed");
+        }
+    }
+
+    private static void fail(String problem) {
+        System.out.println("Mismatch: " + problem);
+        System.exit(1);
+    }
+}
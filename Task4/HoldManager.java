@@ -0,0 +1,118 @@
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+// Short-lived leases on reserved rooms, kept on a hashed timer wheel: time is cut into ticks,
+// a lease sits in the slot of the tick it expires on, and each tick only the leases in that one
+// slot are looked at. Scheduling and cancelling are O(1); a cancelled lease is just flagged and
+// dropped when its slot comes round. Leases further out than one turn of the wheel stay in
+// their slot until their own tick. Expiry callbacks run off the wheel thread.
+public class HoldManager {
+    private final long tickNanos;
+    private final List<Lease>[] wheel;
+    private final int mask;
+    private final Map<String, Lease> byKey = new ConcurrentHashMap<>();
+    private final ExecutorService callbacks = PaymentPipeline.newTaskExecutor("hold-expiry");
+    private final long originNanos = System.nanoTime();
+    private long currentTick;
+    private Thread ticker;
+    private volatile boolean stopped;
+
+    private static class Lease {
+        final String key;
+        final long tick;
+        final Runnable onExpire;
+        volatile boolean cancelled;
+
+        Lease(String key, long tick, Runnable onExpire) {
+            this.key = key;
+            this.tick = tick;
+            this.onExpire = onExpire;
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public HoldManager(long tickMillis, int wheelSize) {
+        if (Integer.bitCount(wheelSize) != 1) throw new IllegalArgumentException("wheelSize must be a power of two");
+        this.tickNanos = tickMillis * 1_000_000;
+        this.wheel = new List[wheelSize];
+        for (int i = 0; i < wheelSize; i++) wheel[i] = new ArrayList<>();
+        this.mask = wheelSize - 1;
+    }
+
+    // (re)places the lease under `key`; onExpire runs once if it is not cancelled within ttlMillis
+    public synchronized void schedule(String key, long ttlMillis, Runnable onExpire) {
+        if (stopped) return;
+        long due = (System.nanoTime() - originNanos + ttlMillis * 1_000_000 + tickNanos - 1) / tickNanos;
+        Lease lease = new Lease(key, Math.max(due, currentTick + 1), onExpire);
+        Lease old = byKey.put(key, lease);
+        if (old != null) old.cancelled = true;
+        wheel[(int) (lease.tick & mask)].add(lease);
+        if (ticker == null) {
+            ticker = new Thread(this::run, "hold-wheel");
+            ticker.setDaemon(true);
+            ticker.start();
+        }
+    }
+
+    // returns false if there was no live lease under `key`
+    public boolean cancel(String key) {
+        Lease lease = byKey.remove(key);
+        if (lease == null) return false;
+        lease.cancelled = true;
+        return true;
+    }
+
+    public boolean isHeld(String key) {
+        return byKey.containsKey(key);
+    }
+
+    public int activeCount() {
+        return byKey.size();
+    }
+
+    public void shutdown() {
+        stopped = true;
+        synchronized (this) {
+            if (ticker != null) ticker.interrupt();
+        }
+        callbacks.shutdown();
+    }
+
+    private void run() {
+        List<Lease> expired = new ArrayList<>();
+        while (!stopped) {
+            long next;
+            synchronized (this) {
+                next = currentTick + 1;
+            }
+            long sleepNanos = originNanos + next * tickNanos - System.nanoTime();
+            if (sleepNanos > 0) {
+                try {
+                    Thread.sleep(sleepNanos / 1_000_000, (int) (sleepNanos % 1_000_000));
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+            synchronized (this) {
+                // catch up one slot at a time if the thread fell behind
+                long now = (System.nanoTime() - originNanos) / tickNanos;
+                while (currentTick < now) {
+                    currentTick++;
+                    List<Lease> slot = wheel[(int) (currentTick & mask)];
+                    for (Iterator<Lease> it = slot.iterator(); it.hasNext(); ) {
+                        Lease lease = it.next();
+                        if (lease.cancelled) {
+                            it.remove();
+                        } else if (lease.tick <= currentTick) {
+                            it.remove();
+                            if (byKey.remove(lease.key, lease)) expired.add(lease);
+                        }
+                    }
+                }
+            }
+            for (Lease lease : expired) callbacks.execute(lease.onExpire);
+            expired.clear();
+        }
+    }
+}
@@ -5,99 +5,137 @@ import java.util.*;
 
 
 public class HotelBookingSystem {
-    private static final String ROOMS_FILE = "rooms.csv";
-    private static final String BOOKINGS_FILE = "bookings.csv";
     private static final DateTimeFormatter fmt = DateTimeFormatter.ISO_LOCAL_DATE;
     private static Scanner scanner = new Scanner(System.in);
+    private static final int PAGE_SIZE = 20;
+    // how long a chosen room stays held while the guest confirms (-Dcheckout.holdMs)
+    private static final long CHECKOUT_HOLD_MILLIS = Long.getLong("checkout.holdMs", 120_000);
+    // one buffered writer for all listings, flushed after every page
+    private final Writer out = new BufferedWriter(new OutputStreamWriter(System.out), 1 << 16);
 
-    private List<Room> rooms = new ArrayList<>();
-    private List<Booking> bookings = new ArrayList<>();
+    private final BookingEngine engine;
+    private final PaymentPipeline payments;
 
-    public static void main(String[] args) {
-        HotelBookingSystem app = new HotelBookingSystem();
-        app.loadData();
-        app.run();
-    }
-
-    private void loadData() {
-        loadRooms();
-        loadBookings();
+    public HotelBookingSystem(BookingEngine engine, PaymentPipeline payments) {
+        this.engine = engine;
+        this.payments = payments;
     }
 
-    private void loadRooms() {
-        File f = new File(ROOMS_FILE);
-        if (!f.exists()) {
-            System.out.println("Rooms file not found. Creating default rooms...");
-            createDefaultRooms();
-            saveRooms();
+    public static void main(String[] args) throws IOException {
+        // -Dchain.dir=hotels manages a chain with one subdirectory per property
+        String chainDir = System.getProperty("chain.dir");
+        if (chainDir != null) {
+            runChain(new HotelChain(java.nio.file.Paths.get(chainDir)));
             return;
         }
-
-        try (BufferedReader br = new BufferedReader(new FileReader(f))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                Room r = Room.fromCSV(line);
-                if (r != null) rooms.add(r);
-            }
-            System.out.println("Loaded " + rooms.size() + " rooms.");
-        } catch (IOException e) {
-            System.out.println("Failed to read rooms file: " + e.getMessage());
-            createDefaultRooms();
+        BookingEngine engine = new BookingEngine();
+        engine.load();
+        HotelMetrics.register(engine, "default");
+        PaymentPipeline payments = PaymentPipeline.fromSystemProperties(engine);
+        // -Dhttp.port=8080 serves the HTTP API from the same engine while the menu runs
+        HotelHttpServer http = null;
+        Integer port = Integer.getInteger("http.port");
+        if (port != null) {
+            http = new HotelHttpServer(engine, payments, port);
+            http.start();
+            System.out.println("HTTP API listening on port " + http.getPort() + ".");
         }
+        // -Dreplication.port=7070 streams bookings to read replicas (java BookingReplica 7070)
+        ReplicationServer replication = null;
+        Integer replicationPort = Integer.getInteger("replication.port");
+        if (replicationPort != null) {
+            replication = new ReplicationServer(engine, replicationPort);
+            replication.start();
+            System.out.println("Replication feed on port " + replication.getPort() + ".");
+        }
+        HotelBookingSystem app = new HotelBookingSystem(engine, payments);
+        app.run();
+        if (http != null) http.stop(1);
+        if (replication != null) replication.stop();
+        payments.shutdown(5000);
+        engine.saveBookings();
+        System.out.println("Data saved. Exiting.");
     }
 
-    private void createDefaultRooms() {
-        rooms.clear();
-        rooms.add(new Room("R101", "Standard", 1500));
-        rooms.add(new Room("R102", "Standard", 1500));
-        rooms.add(new Room("R103", "Standard", 1500));
-        rooms.add(new Room("R201", "Deluxe", 2500));
-        rooms.add(new Room("R202", "Deluxe", 2500));
-        rooms.add(new Room("R203", "Deluxe", 2600));
-        rooms.add(new Room("R301", "Suite", 4000));
-        rooms.add(new Room("R302", "Suite", 4200));
-        rooms.add(new Room("R303", "Suite", 4500));
-    }
-
-    private void saveRooms() {
-        try (PrintWriter pw = new PrintWriter(new FileWriter(ROOMS_FILE))) {
-            for (Room r : rooms) {
-                pw.println(r.toCSV());
+    private static void runChain(HotelChain chain) throws IOException {
+        chain.load();
+        while (true) {
+            List<HotelChain.Property> properties = new ArrayList<>(chain.getProperties());
+            System.out.println("\n===== HOTEL CHAIN =====");
+            for (int i = 0; i < properties.size(); i++) {
+                BookingEngine e = properties.get(i).getEngine();
+                System.out.println((i + 1) + ") " + properties.get(i).getName() + "  (" + e.getRooms().size()
+                        + " rooms, " + e.bookingCount() + " bookings)");
+            }
+            System.out.println("A) Search all properties");
+            System.out.println("N) Add a property");
+            System.out.println("0) Save & Exit");
+            System.out.print("Choose property or option: ");
+            String choice = scanner.nextLine().trim();
+            if (choice.equals("0")) break;
+            if (choice.equalsIgnoreCase("A")) {
+                searchChain(chain);
+            } else if (choice.equalsIgnoreCase("N")) {
+                System.out.print("Property name: ");
+                String name = scanner.nextLine().trim();
+                if (name.isEmpty() || !name.matches("[A-Za-z0-9_-]+")) {
+                    System.out.println("Use letters, digits, '-' or '_' for the name.");
+                } else if (chain.getProperty(name) != null) {
+                    System.out.println("Property already exists.");
+                } else {
+                    chain.addProperty(name);
+                }
+            } else {
+                int idx;
+                try {
+                    idx = Integer.parseInt(choice);
+                } catch (NumberFormatException ex) {
+                    idx = -1;
+                }
+                if (idx < 1 || idx > properties.size()) {
+                    System.out.println("Invalid choice. Try again.");
+                    continue;
+                }
+                HotelChain.Property p = properties.get(idx - 1);
+                System.out.println("\nManaging property " + p.getName() + ". Option 9 saves and returns to the chain menu.");
+                new HotelBookingSystem(p.getEngine(), p.getPayments()).run();
+                p.getEngine().saveBookings();
             }
-        } catch (IOException e) {
-            System.out.println("Failed to save rooms: " + e.getMessage());
         }
+        chain.shutdown(5000);
+        System.out.println("Data saved. Exiting.");
     }
 
-    private void loadBookings() {
-        File f = new File(BOOKINGS_FILE);
-        if (!f.exists()) {
-            System.out.println("No bookings file found (starting fresh).");
+    private static void searchChain(HotelChain chain) {
+        System.out.print("Enter category to search (Standard/Deluxe/Suite or ALL): ");
+        String category = scanner.nextLine().trim();
+        if (category.isEmpty()) category = "ALL";
+        LocalDate start = readDate("Enter check-in date (yyyy-MM-dd): ");
+        LocalDate end = readDate("Enter check-out date (yyyy-MM-dd): ");
+        if (!end.isAfter(start)) {
+            System.out.println("Invalid dates. Check-out must be after check-in.");
             return;
         }
-
-        try (BufferedReader br = new BufferedReader(new FileReader(f))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                Booking b = Booking.fromCSV(line);
-                if (b != null) bookings.add(b);
-            }
-            System.out.println("Loaded " + bookings.size() + " bookings.");
-        } catch (IOException e) {
-            System.out.println("Failed to read bookings file: " + e.getMessage());
+        String invalid = BookingEngine.checkStay(start, end.minusDays(1));
+        if (invalid != null) {
+            System.out.println("Invalid dates. " + invalid);
+            return;
         }
-    }
-
-    private void saveBookings() {
-        try (PrintWriter pw = new PrintWriter(new FileWriter(BOOKINGS_FILE))) {
-            for (Booking b : bookings) {
-                pw.println(b.toCSV());
+        Map<String, List<Room>> found = chain.findAvailableRooms(category, start, end.minusDays(1));
+        if (found.isEmpty()) {
+            System.out.println("No rooms available in any property.");
+            return;
+        }
+        for (Map.Entry<String, List<Room>> e : found.entrySet()) {
+            BookingEngine engine = chain.getProperty(e.getKey()).getEngine();
+            System.out.println("\n" + e.getKey() + ":");
+            for (Room r : e.getValue()) {
+                System.out.println(" - " + r + "  (Total for stay: ₹" + engine.calculateTotalPrice(r, start, end) + ")");
             }
-        } catch (IOException e) {
-            System.out.println("Failed to save bookings: " + e.getMessage());
         }
+        System.out.println("\nChoose the property from the chain menu to book.");
     }
-    
+
     private void run() {
         while (true) {
             printMenu();
@@ -108,7 +146,10 @@ public class HotelBookingSystem {
                 case "3": cancelBooking(); break;
                 case "4": viewBookingDetails(); break;
                 case "5": listAllBookings(); break;
-                case "6": saveBookings(); System.out.println("Data saved. Exiting."); return;
+                case "6": showOccupancy(); break;
+                case "7": showMetrics(); break;
+                case "8": revenueReport(); break;
+                case "9": return;
                 default: System.out.println("Invalid choice. Try again.");
             }
         }
@@ -121,13 +162,16 @@ public class HotelBookingSystem {
         System.out.println("3) Cancel a reservation");
         System.out.println("4) View booking details");
         System.out.println("5) List all bookings");
-        System.out.println("6) Save & Exit");
+        System.out.println("6) Occupancy dashboard");
+        System.out.println("7) Metrics");
+        System.out.println("8) Revenue report");
+        System.out.println("9) Save & Exit");
         System.out.print("Choose option: ");
     }
 
     private void listAllRooms() {
         System.out.println("\nRooms:");
-        for (Room r : rooms) {
+        for (Room r : engine.getRooms()) {
             System.out.println(" - " + r);
         }
     }
@@ -143,8 +187,13 @@ public class HotelBookingSystem {
             System.out.println("Invalid dates. Check-out must be after check-in.");
             return;
         }
+        String invalid = BookingEngine.checkStay(start, end.minusDays(1));
+        if (invalid != null) {
+            System.out.println("Invalid dates. " + invalid);
+            return;
+        }
 
-        List<Room> available = findAvailableRooms(category, start, end.minusDays(1)); 
+        List<Room> available = engine.findAvailableRooms(category, start, end.minusDays(1)); 
         if (available.isEmpty()) {
             System.out.println("No rooms available for given criteria.");
             return;
@@ -153,7 +202,7 @@ public class HotelBookingSystem {
         System.out.println("\nAvailable rooms:");
         for (int i = 0; i < available.size(); i++) {
             Room r = available.get(i);
-            System.out.println((i+1) + ") " + r + "  (Total for stay: ₹" + calculateTotalPrice(r, start, end) + ")");
+            System.out.println((i+1) + ") " + r + "  (Total for stay: ₹" + engine.calculateTotalPrice(r, start, end) + ")");
         }
 
         System.out.print("Choose room number to book (or 0 to cancel): ");
@@ -169,68 +218,40 @@ public class HotelBookingSystem {
         System.out.print("Guest phone: ");
         String gphone = scanner.nextLine().trim();
 
-        double total = calculateTotalPrice(chosen, start, end);
+        double total = engine.calculateTotalPrice(chosen, start, end);
         Booking b = Booking.createNew(chosen.getId(), gname, gphone, start, end.minusDays(1), total);
+        // hold the room while the guest reviews the summary, so nobody else can take it meanwhile
+        if (!engine.hold(b, CHECKOUT_HOLD_MILLIS)) {
+            System.out.println("Sorry, that room was just booked for these dates. Please search again.");
+            return;
+        }
         System.out.println("\nBooking summary:");
         System.out.println(b);
+        System.out.println("Room " + chosen.getId() + " is held for you for " + CHECKOUT_HOLD_MILLIS / 1000 + " seconds.");
         System.out.print("\nProceed to payment of ₹" + total + "? (yes/no): ");
         String pay = scanner.nextLine().trim();
         if (!pay.equalsIgnoreCase("yes")) {
+            engine.release(b);
             System.out.println("Payment cancelled. Booking not completed.");
             return;
         }
 
-        boolean paid = PaymentSimulator.processPayment(total);
-        if (paid) {
-            b.setStatus("BOOKED");
-            bookings.add(b);
-            saveBookings();
-            System.out.println("Payment successful. Booking confirmed! Your Booking ID: " + b.getBookingId());
-        } else {
-            b.setStatus("PAYMENT_FAILED");
-            bookings.add(b);
-            saveBookings();
-            System.out.println("Payment failed. Booking created with status PAYMENT_FAILED. Try again later.");
-        }
-    }
-
-    private List<Room> findAvailableRooms(String category, LocalDate startInclusive, LocalDate endInclusive) {
-        List<Room> result = new ArrayList<>();
-        for (Room r : rooms) {
-            if (!category.equalsIgnoreCase("ALL") && !r.getCategory().equalsIgnoreCase(category)) continue;
-            boolean ok = true;
-            for (Booking b : bookings) {
-                if (!b.getRoomId().equals(r.getId())) continue;
-                if (b.getStatus().equalsIgnoreCase("CANCELLED") || b.getStatus().equalsIgnoreCase("PAYMENT_FAILED"))
-                    continue;
-                LocalDate bStart = b.getStartDate();
-                LocalDate bEnd = b.getEndDate();
-                if (!(endInclusive.isBefore(bStart) || startInclusive.isAfter(bEnd))) {
-                    ok = false;
-                    break;
-                }
-            }
-            if (ok) result.add(r);
+        String id = b.getBookingId();
+        if (engine.findBookingById(id) == null) {
+            System.out.println("Sorry, your hold on the room expired. Please search again.");
+            return;
         }
-        return result;
-    }
-
-    private double calculateTotalPrice(Room r, LocalDate start, LocalDate endExclusive) {
-        long nights = java.time.temporal.ChronoUnit.DAYS.between(start, endExclusive);
-        if (nights <= 0) nights = 1;
-        return nights * r.getPricePerNight();
+        System.out.println("Payment is being processed. Your Booking ID: " + id + " (status PENDING_PAYMENT).");
+        payments.submit(b).thenAccept(paid -> {
+            if (paid) System.out.println("\n[payment] Payment successful. Booking " + id + " confirmed!");
+            else System.out.println("\n[payment] Payment failed. Booking " + id + " has status PAYMENT_FAILED. Try again later.");
+        });
     }
 
     private void cancelBooking() {
         System.out.print("Enter Booking ID to cancel: ");
         String id = scanner.nextLine().trim();
-        Booking found = null;
-        for (Booking b : bookings) {
-            if (b.getBookingId().equals(id)) {
-                found = b;
-                break;
-            }
-        }
+        Booking found = engine.findBookingById(id);
         if (found == null) {
             System.out.println("Booking not found.");
             return;
@@ -240,14 +261,20 @@ public class HotelBookingSystem {
             System.out.println("Booking is already cancelled.");
             return;
         }
+        if (engine.isArchived(found)) {
+            System.out.println("This stay has ended and is archived; it cannot be cancelled.");
+            return;
+        }
         System.out.print("Confirm cancellation? (yes/no): ");
         String c = scanner.nextLine().trim();
         if (!c.equalsIgnoreCase("yes")) {
             System.out.println("Cancellation aborted.");
             return;
         }
-        found.setStatus("CANCELLED");
-        saveBookings();
+        if (!engine.cancel(found)) {
+            System.out.println("Booking is already cancelled.");
+            return;
+        }
         System.out.println("Booking cancelled successfully.");
     }
 
@@ -257,53 +284,186 @@ public class HotelBookingSystem {
         if (opt.equals("1")) {
             System.out.print("Enter Booking ID: ");
             String id = scanner.nextLine().trim();
-            Booking b = findBookingById(id);
+            Booking b = engine.findBookingById(id);
             if (b == null) System.out.println("Not found.");
             else System.out.println("\n" + b);
         } else {
             System.out.print("Enter guest name (partial allowed): ");
-            String name = scanner.nextLine().trim().toLowerCase();
-            List<Booking> found = new ArrayList<>();
-            for (Booking b : bookings) {
-                if (b.getGuestName().toLowerCase().contains(name)) found.add(b);
+            String name = scanner.nextLine().trim();
+            System.out.println("Results:");
+            BookingFilter filter = new BookingFilter("", "", "", name, null, null);
+            int shown = printPaged(filter) + printPending(filter);
+            List<Booking> archived = engine.findArchivedByGuestName(name);
+            if (!archived.isEmpty()) {
+                System.out.println("\nPast and closed bookings:");
+                for (Booking b : archived) System.out.println(b + "\n");
             }
-            if (found.isEmpty()) System.out.println("No bookings found for that name.");
-            else {
-                System.out.println("Results:");
-                for (Booking b : found) {
-                    System.out.println("--------------------");
-                    System.out.println(b);
-                }
+            if (shown == 0 && archived.isEmpty()) {
+                System.out.println("No bookings found for that name.");
             }
         }
     }
 
-    private Booking findBookingById(String id) {
-        for (Booking b : bookings) if (b.getBookingId().equals(id)) return b;
-        return null;
-    }
-
     private void listAllBookings() {
-        if (bookings.isEmpty()) {
+        if (engine.bookingCount() == 0 && engine.getPendingBookings().isEmpty()) {
             System.out.println("No bookings yet.");
             return;
         }
-        System.out.println("\nAll bookings:");
-        for (Booking b : bookings) {
-            System.out.println("--------------------");
-            System.out.println(b);
+        System.out.println("Filter the list (press Enter to skip a filter):");
+        System.out.print("Status (BOOKED/PENDING_PAYMENT/CANCELLED/PAYMENT_FAILED): ");
+        String status = scanner.nextLine().trim();
+        System.out.print("Room ID: ");
+        String roomId = scanner.nextLine().trim();
+        System.out.print("Category (Standard/Deluxe/Suite): ");
+        String category = scanner.nextLine().trim();
+        LocalDate from = readOptionalDate("Staying on or after (yyyy-MM-dd): ");
+        LocalDate to = readOptionalDate("Staying on or before (yyyy-MM-dd): ");
+
+        System.out.println("\nBookings:");
+        BookingFilter filter = new BookingFilter(status, roomId, category, "", from, to);
+        if (printPaged(filter) + printPending(filter) == 0) {
+            System.out.println("No bookings match.");
+        }
+    }
+
+    // prints matching bookings a page at a time, asking before each further page; returns how many were shown
+    private int printPaged(BookingFilter filter) {
+        int[] cursor = {0};
+        int shown = 0;
+        try {
+            while (true) {
+                shown += engine.writeBookings(filter, cursor, PAGE_SIZE, out);
+                out.flush();
+                if (cursor[0] < 0) break;
+                System.out.print("-- " + shown + " shown. Press Enter for more or q to stop: ");
+                if (scanner.nextLine().trim().equalsIgnoreCase("q")) break;
+            }
+        } catch (IOException e) {
+            System.out.println("Failed to list bookings: " + e.getMessage());
+        }
+        return shown;
+    }
+
+    // bookings still awaiting payment live outside the table, so they are listed after it
+    private int printPending(BookingFilter filter) {
+        List<Booking> found = engine.findPendingBookings(filter);
+        if (!found.isEmpty()) {
+            System.out.println("\nAwaiting payment:");
+            for (Booking b : found) System.out.println(b + "\n");
+        }
+        return found.size();
+    }
+
+    private void showOccupancy() {
+        System.out.print("Enter category (Standard/Deluxe/Suite or ALL): ");
+        String category = scanner.nextLine().trim();
+        if (category.isEmpty()) category = "ALL";
+        int total = engine.roomCount(category);
+        if (total == 0) {
+            System.out.println("No rooms in that category.");
+            return;
+        }
+        LocalDate from = readDate("Enter first night (yyyy-MM-dd): ");
+        System.out.print("Number of nights (1-365): ");
+        int days = Math.max(1, Math.min(365, readInt()));
+
+        int[] occupied = engine.occupancyPerNight(category, from, days);
+        System.out.println("\nNight        Occupied  Rate");
+        for (int i = 0; i < days; i++) {
+            System.out.printf("%s  %4d/%-4d %3d%%%n", from.plusDays(i), occupied[i], total, occupied[i] * 100 / total);
+        }
+    }
+
+    // revenue, room-nights sold, occupancy and ADR per category over a range of nights, from the
+    // engine's running revenue ledger; optionally night by night and exported as CSV
+    private void revenueReport() {
+        LocalDate from = readDate("Enter first night (yyyy-MM-dd): ");
+        LocalDate to = readDate("Enter last night (yyyy-MM-dd): ");
+        if (to.isBefore(from)) {
+            System.out.println("Invalid dates. The last night cannot be before the first.");
+            return;
+        }
+        System.out.print("Night-by-night breakdown? (yes/no): ");
+        boolean daily = scanner.nextLine().trim().equalsIgnoreCase("yes");
+        System.out.print("Export to CSV file (blank to skip): ");
+        String file = scanner.nextLine().trim();
+
+        Set<String> categories = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        for (Room r : engine.getRooms()) categories.add(r.getCategory());
+        categories.addAll(engine.revenueCategories());
+        List<String> columns = new ArrayList<>(categories);
+        columns.add("ALL");
+
+        List<String[]> rows = new ArrayList<>();
+        if (daily) {
+            for (LocalDate night = from; !night.isAfter(to); night = night.plusDays(1)) {
+                for (String category : columns) rows.add(revenueRow(night.toString(), category, night, night));
+            }
+        }
+        String period = from + ".." + to;
+        for (String category : columns) rows.add(revenueRow(period, category, from, to));
+
+        System.out.printf("%n%-22s %-10s %10s %9s %14s %10s%n", "Nights", "Category", "Sold", "Occupancy", "Revenue", "ADR");
+        for (String[] row : rows) {
+            System.out.printf("%-22s %-10s %10s %8s%% %14s %10s%n", row[0], row[1], row[2], row[4], "₹" + row[5], "₹" + row[6]);
+        }
+        if (file.isEmpty()) return;
+        try (PrintWriter pw = new PrintWriter(new BufferedWriter(new FileWriter(file)))) {
+            pw.println("nights,category,room_nights_sold,room_nights_available,occupancy_pct,revenue,adr");
+            for (String[] row : rows) pw.println(String.join(",", row));
+            System.out.println("Report exported to " + file + ".");
+        } catch (IOException e) {
+            System.out.println("Failed to export report: " + e.getMessage());
+        }
+    }
+
+    private String[] revenueRow(String label, String category, LocalDate from, LocalDate to) {
+        RevenueLedger.Totals t = engine.revenue(category, from, to);
+        long available = (long) engine.roomCount(category) * (to.toEpochDay() - from.toEpochDay() + 1);
+        String occupancy = available == 0 ? "0.0" : String.format("%.1f", t.getRoomNights() * 100.0 / available);
+        return new String[]{label, category, String.valueOf(t.getRoomNights()), String.valueOf(available), occupancy,
+                String.format("%.2f", PricingEngine.toRupees(t.getRevenuePaise())),
+                String.format("%.2f", PricingEngine.toRupees(t.getAdrPaise()))};
+    }
+
+    private void showMetrics() {
+        System.out.println("\n===== METRICS =====");
+        System.out.print(HotelMetrics.report(engine));
+    }
+
+    private static LocalDate readDate(String prompt) {
+        while (true) {
+            System.out.print(prompt);
+            String s = scanner.nextLine().trim();
+            LocalDate d;
+            try {
+                d = LocalDate.parse(s, fmt);
+            } catch (Exception e) {
+                System.out.println("Invalid date format. Use yyyy-MM-dd (example: 2025-12-01).");
+                continue;
+            }
+            String invalid = BookingEngine.checkDate(d.toEpochDay());
+            if (invalid == null) return d;
+            System.out.println(invalid);
         }
     }
 
-    private LocalDate readDate(String prompt) {
+    // null when left blank
+    private LocalDate readOptionalDate(String prompt) {
         while (true) {
             System.out.print(prompt);
             String s = scanner.nextLine().trim();
+            if (s.isEmpty()) return null;
+            LocalDate d;
             try {
-                return LocalDate.parse(s, fmt);
+                d = LocalDate.parse(s, fmt);
             } catch (Exception e) {
                 System.out.println("Invalid date format. Use yyyy-MM-dd (example: 2025-12-01).");
+                continue;
             }
+            String invalid = BookingEngine.checkDate(d.toEpochDay());
+            if (invalid == null) return d;
+            System.out.println(invalid);
         }
     }
 
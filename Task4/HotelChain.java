@@ -0,0 +1,120 @@
+import java.io.IOException;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+// A chain of hotels, sharded by property. Every subdirectory of the chain root is one property
+// with its own rooms.csv / bookings.csv / journal and its own BookingEngine, so its indexes,
+// locks and files are never touched by work on another property. Each property also has one
+// worker thread: loading, saving and chain-wide searches run on the workers in parallel, and
+// searches that span properties fan out to every worker and merge the answers in name order.
+// Bookings and cancellations do not use the worker: callers go straight to the property's
+// engine and payment pipeline on their own thread. Not sharded: the HotelMetrics latency
+// timers and the PaymentSimulator settings are process-wide, shared by every property; only
+// the booking counts registered per property name are per property.
+public class HotelChain {
+    private final Path root;
+    private final Map<String, Property> properties = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+    public static class Property {
+        private final String name;
+        private final BookingEngine engine;
+        private final PaymentPipeline payments;
+        private final ExecutorService worker;
+
+        Property(String name, Path dir) {
+            this.name = name;
+            this.engine = new BookingEngine(dir);
+            this.payments = PaymentPipeline.fromSystemProperties(engine);
+            this.worker = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, "property-" + name);
+                t.setDaemon(true);
+                return t;
+            });
+        }
+
+        public String getName() { return name; }
+        public BookingEngine getEngine() { return engine; }
+        public PaymentPipeline getPayments() { return payments; }
+    }
+
+    public HotelChain(Path root) throws IOException {
+        this.root = root;
+        Files.createDirectories(root);
+        try (Stream<Path> dirs = Files.list(root)) {
+            dirs.filter(Files::isDirectory).forEach(dir -> {
+                String name = dir.getFileName().toString();
+                properties.put(name, new Property(name, dir));
+            });
+        }
+    }
+
+    // adds a property with an empty directory; its engine creates default rooms on load
+    public Property addProperty(String name) throws IOException {
+        if (properties.containsKey(name)) throw new IllegalArgumentException("Property already exists: " + name);
+        Path dir = root.resolve(name);
+        Files.createDirectories(dir);
+        Property p = new Property(name, dir);
+        p.engine.load();
+        HotelMetrics.register(p.engine, name);
+        properties.put(name, p);
+        return p;
+    }
+
+    public Collection<Property> getProperties() {
+        return Collections.unmodifiableCollection(properties.values());
+    }
+
+    public Property getProperty(String name) {
+        return properties.get(name);
+    }
+
+    // loads every property in parallel, each on its own worker
+    public void load() {
+        onEveryProperty(p -> {
+            p.engine.load();
+            HotelMetrics.register(p.engine, p.name);
+            return null;
+        });
+    }
+
+    public void saveAll() {
+        onEveryProperty(p -> {
+            p.engine.saveBookings();
+            return null;
+        });
+    }
+
+    // free rooms of the category (or ALL) in every property, searched in parallel; properties
+    // with nothing free are left out
+    public Map<String, List<Room>> findAvailableRooms(String category, LocalDate startInclusive, LocalDate endInclusive) {
+        Map<String, List<Room>> found = onEveryProperty(p -> p.engine.findAvailableRooms(category, startInclusive, endInclusive));
+        found.values().removeIf(List::isEmpty);
+        return found;
+    }
+
+    // settles or expires pending payments and saves every property, then stops the workers
+    public void shutdown(long waitMillis) {
+        onEveryProperty(p -> {
+            p.payments.shutdown(waitMillis);
+            p.engine.saveBookings();
+            return null;
+        });
+        for (Property p : properties.values()) p.worker.shutdown();
+    }
+
+    private <T> Map<String, T> onEveryProperty(Function<Property, T> task) {
+        Map<String, CompletableFuture<T>> futures = new LinkedHashMap<>();
+        for (Property p : properties.values()) {
+            futures.put(p.name, CompletableFuture.supplyAsync(() -> task.apply(p), p.worker));
+        }
+        Map<String, T> results = new LinkedHashMap<>();
+        for (Map.Entry<String, CompletableFuture<T>> e : futures.entrySet()) {
+            results.put(e.getKey(), e.getValue().join());
+        }
+        return results;
+    }
+}
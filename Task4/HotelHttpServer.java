@@ -0,0 +1,302 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.*;
+
+// JSON over HTTP on the JDK's built-in server, backed by the same BookingEngine and payment
+// pipeline as the CLI. Each exchange runs on its own virtual thread where the runtime has them
+// (PaymentPipeline.newTaskExecutor), so a request waiting on a payment blocks nobody else.
+//
+//   GET    /rooms
+//   GET    /availability?category=Suite&checkIn=2026-01-10&checkOut=2026-01-12
+//   POST   /bookings            {"roomId", "guestName", "guestPhone", "checkIn", "checkOut"}
+//                               add ?wait=true to answer once the payment has settled
+//   GET    /bookings?guest=&status=&roomId=&category=&from=&to=&cursor=&limit=
+//   GET    /bookings/{id}
+//   DELETE /bookings/{id}
+//
+// Dates are yyyy-MM-dd and checkOut is the departure day. Money is in rupees.
+// Usage: java HotelHttpServer [port]   (or java -Dhttp.port=8080 HotelBookingSystem to run both)
+public class HotelHttpServer {
+    static final int MAX_PAGE = 500;
+
+    static {
+        // the JDK server writes headers and body separately; with Nagle on, keep-alive clients
+        // wait out a delayed ACK (~40 ms) on every response. Read once, when the server starts.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final BookingEngine engine;
+    private final PaymentPipeline payments;
+    private final HttpServer server;
+    private final ExecutorService executor = PaymentPipeline.newTaskExecutor("http");
+
+    public HotelHttpServer(BookingEngine engine, PaymentPipeline payments, int port) throws IOException {
+        this.engine = engine;
+        this.payments = payments;
+        this.server = newServer(port, executor);
+        server.createContext("/rooms", ex -> handle(ex, this::rooms));
+        server.createContext("/availability", ex -> handle(ex, this::availability));
+        server.createContext("/bookings", ex -> handle(ex, this::bookings));
+    }
+
+    // a JDK server with the settings above, also used by BookingReplica's read-only API
+    static HttpServer newServer(int port, ExecutorService executor) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.setExecutor(executor);
+        return server;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        BookingEngine engine = new BookingEngine();
+        engine.load();
+        HotelMetrics.register(engine, "default");
+        PaymentPipeline payments = PaymentPipeline.fromSystemProperties(engine);
+        HotelHttpServer server = new HotelHttpServer(engine, payments, port);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop(1);
+            payments.shutdown(5000);
+            engine.saveBookings();
+            System.out.println("Data saved. Exiting.");
+        }));
+        server.start();
+        System.out.println("HTTP API listening on port " + server.getPort() + ". Press Ctrl+C to stop.");
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+    }
+
+    interface Handler {
+        Response handle(HttpExchange ex, Map<String, String> query) throws IOException;
+    }
+
+    interface BookingSource {
+        List<Booking> findBookings(BookingFilter filter, int[] cursor, int limit);
+    }
+
+    static class Response {
+        final int status;
+        final String json;
+
+        Response(int status, String json) {
+            this.status = status;
+            this.json = json;
+        }
+    }
+
+    static Response error(int status, String message) {
+        return new Response(status, "{\"error\":" + quote(message) + "}");
+    }
+
+    static void handle(HttpExchange ex, Handler handler) throws IOException {
+        Response r;
+        try {
+            r = handler.handle(ex, query(ex.getRequestURI().getRawQuery()));
+        } catch (BadRequest e) {
+            r = error(400, e.getMessage());
+        } catch (RuntimeException e) {
+            r = error(500, String.valueOf(e.getMessage()));
+        }
+        byte[] body = r.json.getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        ex.sendResponseHeaders(r.status, body.length);
+        try (OutputStream os = ex.getResponseBody()) {
+            os.write(body);
+        }
+    }
+
+    private Response rooms(HttpExchange ex, Map<String, String> q) {
+        if (!ex.getRequestMethod().equals("GET")) return error(405, "Use GET");
+        StringBuilder sb = new StringBuilder("[");
+        for (Room r : engine.getRooms()) {
+            if (sb.length() > 1) sb.append(',');
+            appendRoom(r, sb);
+            sb.append('}');
+        }
+        return new Response(200, sb.append(']').toString());
+    }
+
+    private Response availability(HttpExchange ex, Map<String, String> q) {
+        if (!ex.getRequestMethod().equals("GET")) return error(405, "Use GET");
+        LocalDate in = date(q, "checkIn", true);
+        LocalDate out = date(q, "checkOut", true);
+        if (!out.isAfter(in)) throw new BadRequest("checkOut must be after checkIn");
+        String invalid = BookingEngine.checkStay(in, out.minusDays(1));
+        if (invalid != null) throw new BadRequest(invalid);
+        String category = q.getOrDefault("category", "ALL");
+        StringBuilder sb = new StringBuilder("[");
+        for (Room r : engine.findAvailableRooms(category.isEmpty() ? "ALL" : category, in, out.minusDays(1))) {
+            if (sb.length() > 1) sb.append(',');
+            appendRoom(r, sb);
+            sb.append(",\"total\":").append(engine.calculateTotalPrice(r, in, out)).append('}');
+        }
+        return new Response(200, sb.append(']').toString());
+    }
+
+    private Response bookings(HttpExchange ex, Map<String, String> q) throws IOException {
+        String path = ex.getRequestURI().getPath();
+        String id = path.length() > "/bookings/".length() ? path.substring("/bookings/".length()) : "";
+        String method = ex.getRequestMethod();
+        if (id.isEmpty()) {
+            if (method.equals("POST")) return book(ex, q);
+            if (method.equals("GET")) return search(q, engine::findBookings);
+            return error(405, "Use GET or POST");
+        }
+        Booking b = engine.findBookingById(id);
+        if (b == null) return error(404, "Booking not found");
+        if (method.equals("GET")) return new Response(200, bookingJson(b));
+        if (method.equals("DELETE")) {
+            if (engine.isArchived(b)) return error(409, "Booking is archived and cannot be changed");
+            if (!engine.cancel(b)) return error(409, "Booking is already cancelled");
+            return new Response(200, bookingJson(b));
+        }
+        return error(405, "Use GET or DELETE");
+    }
+
+    private Response book(HttpExchange ex, Map<String, String> q) throws IOException {
+        Map<String, String> body;
+        try (InputStream is = ex.getRequestBody()) {
+            body = BatchBookingImport.parseJsonObject(new String(is.readAllBytes(), StandardCharsets.UTF_8));
+        } catch (IOException | RuntimeException e) {
+            throw new BadRequest("Invalid JSON body: " + e.getMessage());
+        }
+        Room room = engine.getRoom(body.getOrDefault("roomId", ""));
+        if (room == null) return error(404, "Room not found");
+        LocalDate in = date(body, "checkIn", true);
+        LocalDate out = date(body, "checkOut", true);
+        if (!out.isAfter(in)) throw new BadRequest("checkOut must be after checkIn");
+        String invalid = BookingEngine.checkStay(in, out.minusDays(1));
+        if (invalid != null) throw new BadRequest(invalid);
+        String guest = body.getOrDefault("guestName", "").trim();
+        if (guest.isEmpty()) throw new BadRequest("guestName is required");
+        String phone = body.getOrDefault("guestPhone", "").trim();
+        invalid = BookingEngine.checkGuestDetails(guest, phone);
+        if (invalid != null) throw new BadRequest(invalid);
+
+        Booking b = Booking.createNew(room.getId(), guest, phone, in,
+                out.minusDays(1), engine.calculateTotalPrice(room, in, out));
+        if (!engine.reserve(b)) return error(409, "Room is not available for those dates");
+        CompletableFuture<Boolean> paid = payments.submit(b);
+        if (!Boolean.parseBoolean(q.get("wait"))) return new Response(202, bookingJson(b));
+        paid.join();
+        return new Response(b.getStatus().equals("BOOKED") ? 201 : 402, bookingJson(b));
+    }
+
+    // the listing shared with the read-only replica: filter, cursor and page size from the query
+    static Response search(Map<String, String> q, BookingSource source) {
+        BookingFilter filter = new BookingFilter(q.get("status"), q.get("roomId"), q.get("category"),
+                q.get("guest"), date(q, "from", false), date(q, "to", false));
+        int[] cursor = {integer(q, "cursor", 0)};
+        int limit = Math.max(1, Math.min(MAX_PAGE, integer(q, "limit", 50)));
+        StringBuilder sb = new StringBuilder("{\"bookings\":[");
+        boolean first = true;
+        for (Booking b : source.findBookings(filter, cursor, limit)) {
+            if (!first) sb.append(',');
+            sb.append(bookingJson(b));
+            first = false;
+        }
+        return new Response(200, sb.append("],\"next\":").append(cursor[0]).append('}').toString());
+    }
+
+    private static void appendRoom(Room r, StringBuilder sb) {
+        sb.append("{\"id\":").append(quote(r.getId()))
+          .append(",\"category\":").append(quote(r.getCategory()))
+          .append(",\"pricePerNight\":").append(r.getPricePerNight());
+    }
+
+    static String bookingJson(Booking b) {
+        return "{\"bookingId\":" + quote(b.getBookingId()) +
+               ",\"roomId\":" + quote(b.getRoomId()) +
+               ",\"guestName\":" + quote(b.getGuestName()) +
+               ",\"guestPhone\":" + quote(b.getGuestPhone()) +
+               ",\"checkIn\":\"" + b.getStartDate() + "\"" +
+               ",\"checkOut\":\"" + b.getEndDate().plusDays(1) + "\"" +
+               ",\"totalPrice\":" + b.getTotalPrice() +
+               ",\"status\":" + quote(b.getStatus()) + "}";
+    }
+
+    static String quote(String s) {
+        StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+                    else sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    static Map<String, String> query(String raw) {
+        Map<String, String> q = new HashMap<>();
+        if (raw == null || raw.isEmpty()) return q;
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            try {
+                q.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+            } catch (IllegalArgumentException e) {
+                throw new BadRequest("Malformed query string: " + e.getMessage());
+            }
+        }
+        return q;
+    }
+
+    static LocalDate date(Map<String, String> q, String name, boolean required) {
+        String s = q.getOrDefault(name, "").trim();
+        if (s.isEmpty()) {
+            if (required) throw new BadRequest(name + " is required (yyyy-MM-dd)");
+            return null;
+        }
+        try {
+            return LocalDate.parse(s);
+        } catch (DateTimeParseException e) {
+            throw new BadRequest("Invalid " + name + " (use yyyy-MM-dd)");
+        }
+    }
+
+    static int integer(Map<String, String> q, String name, int defaultValue) {
+        String s = q.getOrDefault(name, "").trim();
+        if (s.isEmpty()) return defaultValue;
+        try {
+            return Integer.parseInt(s);
+        } catch (NumberFormatException e) {
+            throw new BadRequest("Invalid " + name);
+        }
+    }
+
+    static class BadRequest extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        BadRequest(String message) {
+            super(message);
+        }
+    }
+}
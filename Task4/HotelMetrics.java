@@ -0,0 +1,59 @@
+import javax.management.*;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+// Process-wide timers and counters for the booking hot paths, published over JMX (jconsole,
+// VisualVM: the "hotel" domain) and printed by the CLI's metrics option.
+public class HotelMetrics {
+    public static final LatencyHistogram SEARCH = new LatencyHistogram("findAvailableRooms");
+    public static final LatencyHistogram RESERVE = new LatencyHistogram("reserve");
+    public static final LatencyHistogram PAYMENT = new LatencyHistogram("processPayment");
+    public static final LatencyHistogram SAVE = new LatencyHistogram("saveBookings");
+    public static final LatencyHistogram LOAD = new LatencyHistogram("loadBookings");
+    public static final LongAdder PAYMENT_APPROVED = new LongAdder();
+    public static final LongAdder PAYMENT_DECLINED = new LongAdder();
+
+    private static final List<LatencyHistogram> TIMERS = Arrays.asList(SEARCH, RESERVE, PAYMENT, SAVE, LOAD);
+    private static boolean timersRegistered;
+
+    // registers the timers once per process and the engine's booking stats and search cache under `engineName`
+    public static synchronized void register(BookingEngine engine, String engineName) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            if (!timersRegistered) {
+                for (LatencyHistogram h : TIMERS) {
+                    server.registerMBean(h, new ObjectName("hotel:type=Latency,name=" + h.getName()));
+                }
+                timersRegistered = true;
+            }
+            ObjectName stats = new ObjectName("hotel:type=Bookings,name=" + ObjectName.quote(engineName));
+            if (server.isRegistered(stats)) server.unregisterMBean(stats);
+            server.registerMBean(new BookingStats(engine), stats);
+            ObjectName cache = new ObjectName("hotel:type=SearchCache,name=" + ObjectName.quote(engineName));
+            if (server.isRegistered(cache)) server.unregisterMBean(cache);
+            server.registerMBean(engine.getSearchCache(), cache);
+        } catch (JMException e) {
+            System.out.println("Failed to register metrics: " + e.getMessage());
+        }
+    }
+
+    public static String report(BookingEngine engine) {
+        BookingStats stats = new BookingStats(engine);
+        StringBuilder sb = new StringBuilder();
+        sb.append("Rooms: ").append(stats.getRooms()).append("   Bookings: ").append(stats.getBookings())
+          .append("   Archived: ").append(stats.getArchived()).append('\n');
+        sb.append("  BOOKED ").append(stats.getBooked())
+          .append("   PENDING_PAYMENT ").append(stats.getPendingPayment())
+          .append("   CANCELLED ").append(stats.getCancelled())
+          .append("   PAYMENT_FAILED ").append(stats.getPaymentFailed())
+          .append("   held ").append(stats.getActiveHolds()).append('\n');
+        sb.append(String.format("Payment attempts: %d   approved: %d   success rate: %.1f%%%n",
+                stats.getPaymentAttempts(), stats.getPaymentApproved(), stats.getPaymentSuccessRate() * 100));
+        sb.append(engine.getSearchCache().summary()).append('\n');
+        ChangeFeed feed = engine.getChangeFeed();
+        sb.append("Change feed: ").append(feed.currentSeq()).append(" changes   replicas ").append(feed.subscriberCount()).append('\n');
+        for (LatencyHistogram h : TIMERS) sb.append(h.summary()).append('\n');
+        return sb.toString();
+    }
+}
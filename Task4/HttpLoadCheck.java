@@ -0,0 +1,157 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+
+// Drives the HTTP API with concurrent clients running a mix of availability searches, bookings,
+// lookups and guest searches, then reports requests/sec and p50/p99 latency per endpoint.
+// Without a URL it starts its own server on a free port over a fresh synthetic hotel.
+// Usage: java HttpLoadCheck [clients] [seconds] [baseUrl]
+public class HttpLoadCheck {
+    private static final String[] CATEGORIES = {"Standard", "Deluxe", "Suite"};
+    private static final String[] OPS = {"availability", "book", "lookup", "search"};
+    private static final LocalDate BASE = LocalDate.of(2030, 1, 1);
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        String baseUrl = args.length > 2 ? args[2] : null;
+
+        HotelHttpServer server = null;
+        PaymentPipeline payments = null;
+        if (baseUrl == null) {
+            BookingEngine engine = new BookingEngine(Files.createTempDirectory("http-load"));
+            List<Room> rooms = new ArrayList<>();
+            for (int i = 0; i < 300; i++) rooms.add(new Room("H" + i, CATEGORIES[i % CATEGORIES.length], 1500 + 1000 * (i % 3)));
+            engine.setRooms(rooms);
+            PaymentSimulator.configure(0.85, 20, 20, 0, 0);
+            payments = new PaymentPipeline(engine, 1000, 3, 50, 5000);
+            server = new HotelHttpServer(engine, payments, 0);
+            server.start();
+            baseUrl = "http://localhost:" + server.getPort();
+        }
+
+        HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5)).build();
+        List<String> bookedIds = Collections.synchronizedList(new ArrayList<>());
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        ExecutorService workers = PaymentPipeline.newTaskExecutor("load");
+        List<Future<long[][]>> results = new ArrayList<>();
+        final String url = baseUrl;
+        for (int c = 0; c < clients; c++) {
+            results.add(workers.submit(() -> runClient(http, url, deadline, bookedIds)));
+        }
+
+        // per op: latencies (ns), then [ok, conflict, error] counts in the last three slots
+        long[][] merged = new long[OPS.length][0];
+        long[][] counts = new long[OPS.length][3];
+        for (Future<long[][]> f : results) {
+            long[][] r = f.get();
+            for (int op = 0; op < OPS.length; op++) {
+                int n = r[op].length - 3;
+                long[] joined = Arrays.copyOf(merged[op], merged[op].length + n);
+                System.arraycopy(r[op], 0, joined, merged[op].length, n);
+                merged[op] = joined;
+                for (int k = 0; k < 3; k++) counts[op][k] += r[op][n + k];
+            }
+        }
+        workers.shutdown();
+
+        long total = 0;
+        System.out.printf("%-14s %10s %10s %10s %8s %8s %12s %12s%n", "endpoint", "requests", "req/s", "ok", "409/404", "errors", "p50", "p99");
+        for (int op = 0; op < OPS.length; op++) {
+            long[] lat = merged[op];
+            Arrays.sort(lat);
+            total += lat.length;
+            System.out.printf("%-14s %10d %10.0f %10d %8d %8d %12s %12s%n", OPS[op], lat.length, lat.length / (double) seconds,
+                    counts[op][0], counts[op][1], counts[op][2], percentile(lat, 0.50), percentile(lat, 0.99));
+        }
+        long[] all = new long[0];
+        for (long[] lat : merged) {
+            long[] joined = Arrays.copyOf(all, all.length + lat.length);
+            System.arraycopy(lat, 0, joined, all.length, lat.length);
+            all = joined;
+        }
+        Arrays.sort(all);
+        System.out.printf("%-14s %10d %10.0f %10s %8s %8s %12s %12s%n", "all", total, total / (double) seconds,
+                "", "", "", percentile(all, 0.50), percentile(all, 0.99));
+
+        if (server != null) {
+            server.stop(0);
+            payments.shutdown(2000);
+            System.out.println("Confirmed: " + payments.getConfirmed() + ", failed: " + payments.getFailed()
+                    + ", hold expired: " + payments.getExpired());
+        }
+    }
+
+    private static long[][] runClient(HttpClient http, String baseUrl, long deadline, List<String> bookedIds) {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        long[][] lat = new long[OPS.length][1024];
+        int[] n = new int[OPS.length];
+        long[][] counts = new long[OPS.length][3];
+        while (System.nanoTime() < deadline) {
+            int pick = rnd.nextInt(100);
+            int op = pick < 70 ? 0 : pick < 80 ? 1 : pick < 95 ? 2 : 3;
+            LocalDate in = BASE.plusDays(rnd.nextInt(365));
+            LocalDate out = in.plusDays(1 + rnd.nextInt(5));
+            HttpRequest.Builder req;
+            switch (op) {
+                case 0:
+                    req = HttpRequest.newBuilder(URI.create(baseUrl + "/availability?category=" +
+                            CATEGORIES[rnd.nextInt(CATEGORIES.length)] + "&checkIn=" + in + "&checkOut=" + out));
+                    break;
+                case 1:
+                    req = HttpRequest.newBuilder(URI.create(baseUrl + "/bookings")).POST(HttpRequest.BodyPublishers.ofString(
+                            "{\"roomId\":\"H" + rnd.nextInt(300) + "\",\"guestName\":\"Load " + rnd.nextInt(100_000) +
+                            "\",\"guestPhone\":\"000\",\"checkIn\":\"" + in + "\",\"checkOut\":\"" + out + "\"}"));
+                    break;
+                case 2:
+                    String id;
+                    synchronized (bookedIds) {
+                        id = bookedIds.isEmpty() ? "none" : bookedIds.get(rnd.nextInt(bookedIds.size()));
+                    }
+                    req = HttpRequest.newBuilder(URI.create(baseUrl + "/bookings/" + id));
+                    break;
+                default:
+                    req = HttpRequest.newBuilder(URI.create(baseUrl + "/bookings?guest=Load+" + rnd.nextInt(1000) + "&limit=20"));
+            }
+            long t0 = System.nanoTime();
+            int status;
+            String body;
+            try {
+                HttpResponse<String> resp = http.send(req.timeout(Duration.ofSeconds(10)).build(), HttpResponse.BodyHandlers.ofString());
+                status = resp.statusCode();
+                body = resp.body();
+            } catch (Exception e) {
+                status = -1;
+                body = "";
+            }
+            long nanos = System.nanoTime() - t0;
+            if (n[op] == lat[op].length) lat[op] = Arrays.copyOf(lat[op], n[op] * 2);
+            lat[op][n[op]++] = nanos;
+            if (status >= 200 && status < 300) counts[op][0]++;
+            else if (status == 409 || (op == 2 && status == 404)) counts[op][1]++;
+            else counts[op][2]++;
+            if (op == 1 && status == 202) {
+                int at = body.indexOf("\"bookingId\":\"");
+                if (at >= 0) bookedIds.add(body.substring(at + 13, body.indexOf('"', at + 13)));
+            }
+        }
+        long[][] result = new long[OPS.length][];
+        for (int op = 0; op < OPS.length; op++) {
+            result[op] = Arrays.copyOf(lat[op], n[op] + 3);
+            System.arraycopy(counts[op], 0, result[op], n[op], 3);
+        }
+        return result;
+    }
+
+    private static String percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return "-";
+        return LatencyHistogram.formatNanos(sorted[Math.min(sorted.length - 1, (int) (sorted.length * p))]);
+    }
+}
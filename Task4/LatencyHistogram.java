@@ -0,0 +1,100 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// Lock-free latency histogram in nanoseconds with HdrHistogram-style log-linear buckets: 32
+// linear sub-buckets per power of two, so any recorded value is reported within ~3% and the
+// whole range up to Long.MAX_VALUE fits in under 2k counters. Recording is two array indexes
+// and an atomic increment, cheap enough to leave on around the hot paths.
+public class LatencyHistogram implements LatencyHistogramMBean {
+    private static final int SUB_BITS = 5;
+    private static final int SUB = 1 << SUB_BITS;
+
+    private final String name;
+    private final AtomicLongArray counts = new AtomicLongArray((64 - SUB_BITS) * SUB);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public LatencyHistogram(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // nanos since `startNanos` (a System.nanoTime reading)
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        counts.incrementAndGet(index(nanos));
+        count.increment();
+        total.add(nanos);
+        max.accumulate(nanos);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public double getMeanMicros() {
+        long n = count.sum();
+        return n == 0 ? 0 : total.sum() / 1e3 / n;
+    }
+
+    public double getP50Micros() { return percentile(0.50) / 1e3; }
+    public double getP90Micros() { return percentile(0.90) / 1e3; }
+    public double getP99Micros() { return percentile(0.99) / 1e3; }
+    public double getP999Micros() { return percentile(0.999) / 1e3; }
+    public double getMaxMicros() { return max.get() / 1e3; }
+
+    // highest value in the bucket holding the p-th recorded value, capped at the true maximum
+    public long percentile(double p) {
+        long n = count.sum();
+        if (n == 0) return 0;
+        long target = Math.max(1, (long) Math.ceil(p * n));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= target) return Math.min(highestIn(i), max.get());
+        }
+        return max.get();
+    }
+
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) counts.set(i, 0);
+        count.reset();
+        total.reset();
+        max.reset();
+    }
+
+    public String summary() {
+        return String.format("%-20s count=%-9d mean=%9.1fus p50=%9.1fus p99=%9.1fus p99.9=%9.1fus max=%9.1fus",
+                name, getCount(), getMeanMicros(), getP50Micros(), getP99Micros(), getP999Micros(), getMaxMicros());
+    }
+
+    static int index(long v) {
+        if (v < SUB) return (int) v;
+        int exp = 63 - Long.numberOfLeadingZeros(v);
+        int sub = (int) (v >>> (exp - SUB_BITS)) & (SUB - 1);
+        return (exp - SUB_BITS + 1) * SUB + sub;
+    }
+
+    static long highestIn(int index) {
+        if (index < SUB) return index;
+        int exp = index / SUB + SUB_BITS - 1;
+        long low = (1L << exp) | ((long) (index % SUB) << (exp - SUB_BITS));
+        return low + (1L << (exp - SUB_BITS)) - 1;
+    }
+
+    // a duration for reports: ns below 10 us, then us below 10 ms, then ms
+    public static String formatNanos(long nanos) {
+        if (nanos < 10_000) return nanos + " ns";
+        if (nanos < 10_000_000) return String.format("%.1f us", nanos / 1e3);
+        return String.format("%.1f ms", nanos / 1e6);
+    }
+}
@@ -0,0 +1,12 @@
+// JMX view of a LatencyHistogram, registered as hotel:type=Latency,name=<operation>
+public interface LatencyHistogramMBean {
+    String getName();
+    long getCount();
+    double getMeanMicros();
+    double getP50Micros();
+    double getP90Micros();
+    double getP99Micros();
+    double getP999Micros();
+    double getMaxMicros();
+    void reset();
+}
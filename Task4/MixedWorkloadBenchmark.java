@@ -0,0 +1,96 @@
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+// Read throughput under a mixed workload: every thread runs availability searches and, for a
+// share of its operations, books or releases a room, so searches keep running while the
+// calendar publishes new versions. Runs with 1, 2, 4, ... threads up to the given maximum
+// and reports searches/sec, writes/sec and search p50/p99 for each.
+// Usage: java MixedWorkloadBenchmark [maxThreads] [seconds] [writePercent] [rooms]
+public class MixedWorkloadBenchmark {
+    private static final String[] CATEGORIES = {"Standard", "Deluxe", "Suite"};
+    private static final LocalDate BASE = LocalDate.of(2030, 1, 1);
+    private static final int SAMPLE_EVERY = 16;
+
+    public static void main(String[] args) throws Exception {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Math.max(4, Runtime.getRuntime().availableProcessors());
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        int writePercent = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        int roomCount = args.length > 3 ? Integer.parseInt(args[3]) : 1000;
+
+        BookingEngine engine = new BookingEngine(Files.createTempDirectory("mixed-bench"));
+        List<Room> rooms = new ArrayList<>();
+        for (int i = 0; i < roomCount; i++) rooms.add(new Room("M" + i, CATEGORIES[i % CATEGORIES.length], 1500 + 1000 * (i % 3)));
+        engine.setRooms(rooms);
+
+        System.out.println(roomCount + " rooms, " + writePercent + "% writes, " + seconds + " s per run, "
+                + Runtime.getRuntime().availableProcessors() + " CPUs");
+        System.out.printf("%8s %14s %12s %10s %10s%n", "threads", "searches/s", "writes/s", "p50", "p99");
+        run(engine, rooms, 1, 1, writePercent); // warm-up
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            long[] result = run(engine, rooms, threads, seconds, writePercent);
+            System.out.printf("%8d %14.0f %12.0f %10s %10s%n", threads, result[0] / (double) seconds,
+                    result[1] / (double) seconds, LatencyHistogram.formatNanos(result[2]), LatencyHistogram.formatNanos(result[3]));
+        }
+        System.out.println(engine.getSearchCache().summary());
+    }
+
+    // returns {searches, writes, p50 nanos, p99 nanos}
+    private static long[] run(BookingEngine engine, List<Room> rooms, int threads, int seconds, int writePercent)
+            throws Exception {
+        LongAdder searches = new LongAdder();
+        LongAdder writes = new LongAdder();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch startGate = new CountDownLatch(1);
+        long[] deadline = new long[1];
+        List<Future<long[]>> samples = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            samples.add(pool.submit(() -> {
+                ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                List<Room> out = new ArrayList<>();
+                long[] lat = new long[1024];
+                int n = 0;
+                long reads = 0;
+                startGate.await();
+                while (System.nanoTime() < deadline[0]) {
+                    long start = BASE.toEpochDay() + rnd.nextInt(365);
+                    long end = start + rnd.nextInt(5);
+                    if (rnd.nextInt(100) < writePercent) {
+                        Room room = rooms.get(rnd.nextInt(rooms.size()));
+                        Booking b = Booking.createNew(room.getId(), "Mixed", "000", LocalDate.ofEpochDay(start),
+                                LocalDate.ofEpochDay(end), room.getPricePerNight());
+                        // reserve and release, so the calendar keeps changing without filling up
+                        if (engine.reserve(b)) engine.release(b);
+                        writes.increment();
+                        continue;
+                    }
+                    out.clear();
+                    long t0 = System.nanoTime();
+                    engine.findAvailableRooms(CATEGORIES[rnd.nextInt(CATEGORIES.length)], start, end, out);
+                    if (++reads % SAMPLE_EVERY == 0) {
+                        if (n == lat.length) lat = Arrays.copyOf(lat, n * 2);
+                        lat[n++] = System.nanoTime() - t0;
+                    }
+                }
+                searches.add(reads);
+                return Arrays.copyOf(lat, n);
+            }));
+        }
+        deadline[0] = System.nanoTime() + seconds * 1_000_000_000L;
+        startGate.countDown();
+        long[] all = new long[0];
+        for (Future<long[]> f : samples) {
+            long[] lat = f.get();
+            long[] joined = Arrays.copyOf(all, all.length + lat.length);
+            System.arraycopy(lat, 0, joined, all.length, lat.length);
+            all = joined;
+        }
+        pool.shutdown();
+        Arrays.sort(all);
+        long p50 = all.length == 0 ? 0 : all[all.length / 2];
+        long p99 = all.length == 0 ? 0 : all[Math.min(all.length - 1, (int) (all.length * 0.99))];
+        return new long[]{searches.sum(), writes.sum(), p50, p99};
+    }
+}
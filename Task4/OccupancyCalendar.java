@@ -0,0 +1,250 @@
+import java.time.LocalDate;
+import java.util.*;
+
+// Night-major occupancy bitmap: for every night there is one bit per room, so a category's
+// rooms free for a whole stay are mask & ~(night1 | night2 | ...) and the rooms taken on a
+// night are popcount(night & mask). Nights are offsets from an origin that is kept on a
+// 64-day boundary and moved back if an earlier booking arrives.
+//
+// Readers never lock: the bitmap lives in an immutable, versioned Snapshot that is fetched
+// with one volatile read. Writers are serialized and publish a new Snapshot that shares
+// everything they did not touch; nights are grouped in chunks of 64, so a change copies the
+// chunk directory, the chunks it touches and the nights it touches. Until seal() is called
+// (while the owner is still filling a calendar nobody else can see) changes are made in place.
+public class OccupancyCalendar {
+    private static final int CHUNK_SHIFT = 6;
+    private static final int CHUNK_NIGHTS = 1 << CHUNK_SHIFT;
+
+    private final List<Room> rooms;
+    private final Map<String, Integer> roomIndex = new HashMap<>();
+    private final Map<String, long[]> categoryMasks = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private final long[] allRooms;
+    private final int words;
+
+    private volatile Snapshot current = new Snapshot(0, 0, new long[0][][]);
+    private boolean sealed;
+
+    public OccupancyCalendar(List<Room> rooms) {
+        this.rooms = new ArrayList<>(rooms);
+        this.words = (rooms.size() + 63) >>> 6;
+        this.allRooms = new long[words];
+        for (int i = 0; i < rooms.size(); i++) {
+            Room r = rooms.get(i);
+            roomIndex.put(r.getId(), i);
+            setBit(allRooms, i);
+            setBit(categoryMasks.computeIfAbsent(r.getCategory(), k -> new long[words]), i);
+        }
+    }
+
+    // Occupancy as of one version. Never changes once published, so a reader can make several
+    // queries against it and get consistent answers.
+    public final class Snapshot {
+        private final long version;
+        private final long origin;
+        private final long[][][] chunks; // chunk -> night -> room bits; null means all free
+
+        private Snapshot(long version, long origin, long[][][] chunks) {
+            this.version = version;
+            this.origin = origin;
+            this.chunks = chunks;
+        }
+
+        public long version() {
+            return version;
+        }
+
+        // rooms that are not in the calendar count as free
+        public boolean isRoomFree(String roomId, long start, long end) {
+            Integer room = roomIndex.get(roomId);
+            if (room == null) return true;
+            for (long d = start; d <= end; d++) {
+                long[] night = night(d);
+                if (night != null && (night[room >>> 6] & (1L << room)) != 0) return false;
+            }
+            return true;
+        }
+
+        // rooms of the category (or ALL) with no occupied night in [startInclusive, endInclusive], in room order
+        public List<Room> freeRooms(String category, LocalDate startInclusive, LocalDate endInclusive) {
+            List<Room> result = new ArrayList<>();
+            freeRooms(category, startInclusive.toEpochDay(), endInclusive.toEpochDay(), result);
+            return result;
+        }
+
+        // same, appended to `out`; allocates one word per 64 rooms beyond what `out` needs to grow
+        public void freeRooms(String category, long start, long end, List<Room> out) {
+            long[] mask = mask(category);
+            if (mask == null) return;
+            long[] free = mask.clone();
+            long from = Math.max(start, origin);
+            long to = Math.min(end, origin + ((long) chunks.length << CHUNK_SHIFT) - 1);
+            for (long d = from; d <= to; d++) {
+                long[] night = night(d);
+                if (night == null) continue;
+                for (int w = 0; w < words; w++) free[w] &= ~night[w];
+            }
+            for (int w = 0; w < words; w++) {
+                long bits = free[w];
+                while (bits != 0) {
+                    out.add(rooms.get((w << 6) + Long.numberOfTrailingZeros(bits)));
+                    bits &= bits - 1;
+                }
+            }
+        }
+
+        // occupied rooms of the category (or ALL) on each of `days` nights starting at `from`
+        public int[] occupancyPerNight(String category, LocalDate from, int days) {
+            int[] counts = new int[days];
+            long[] mask = mask(category);
+            if (mask == null) return counts;
+            for (int i = 0; i < days; i++) {
+                long[] night = night(from.toEpochDay() + i);
+                if (night == null) continue;
+                int n = 0;
+                for (int w = 0; w < words; w++) n += Long.bitCount(night[w] & mask[w]);
+                counts[i] = n;
+            }
+            return counts;
+        }
+
+        private long[] night(long day) {
+            long off = day - origin;
+            if (off < 0 || (off >> CHUNK_SHIFT) >= chunks.length) return null;
+            long[][] chunk = chunks[(int) (off >> CHUNK_SHIFT)];
+            return chunk == null ? null : chunk[(int) off & (CHUNK_NIGHTS - 1)];
+        }
+    }
+
+    public Snapshot snapshot() {
+        return current;
+    }
+
+    // from here on every change is copy-on-write; call before handing the calendar to readers
+    public synchronized void seal() {
+        sealed = true;
+    }
+
+    public void add(Booking b) {
+        if (!Booking.occupiesRoom(b.getStatus())) return;
+        occupy(b.getRoomId(), b.getStartDate().toEpochDay(), b.getEndDate().toEpochDay());
+    }
+
+    public void remove(Booking b) {
+        release(b.getRoomId(), b.getStartDate().toEpochDay(), b.getEndDate().toEpochDay());
+    }
+
+    public void occupy(String roomId, long start, long end) {
+        Integer room = roomIndex.get(roomId);
+        if (room == null || end < start) return;
+        update(room, start, end, true, null);
+    }
+
+    public void release(String roomId, long start, long end) {
+        release(roomId, start, end, null);
+    }
+
+    // frees the nights in [start, end] except those whose bit in `keep` (bit i = night start + i)
+    // is set, in one published change, so readers never see nights that are still taken go free
+    public void release(String roomId, long start, long end, BitSet keep) {
+        Integer room = roomIndex.get(roomId);
+        if (room == null || end < start) return;
+        update(room, start, end, false, keep);
+    }
+
+    private synchronized void update(int room, long start, long end, boolean occupied, BitSet keep) {
+        Snapshot s = current;
+        long origin = s.origin;
+        long[][][] chunks = s.chunks;
+        if (occupied) {
+            // grow the chunk directory to cover the stay
+            if (chunks.length == 0) origin = Math.floorDiv(start, CHUNK_NIGHTS) * CHUNK_NIGHTS;
+            int prepend = start < origin ? (int) ((origin - Math.floorDiv(start, CHUNK_NIGHTS) * CHUNK_NIGHTS) >> CHUNK_SHIFT) : 0;
+            int needed = (int) ((end - origin) >> CHUNK_SHIFT) + 1 + prepend;
+            if (prepend > 0 || needed > chunks.length) {
+                long[][][] grown = new long[Math.max(needed, prepend + (chunks.length > 0 ? chunks.length * 2 : 1))][][];
+                System.arraycopy(chunks, 0, grown, prepend, chunks.length);
+                chunks = grown;
+                origin -= (long) prepend << CHUNK_SHIFT;
+            } else if (sealed) {
+                chunks = chunks.clone();
+            }
+        } else {
+            start = Math.max(start, origin);
+            end = Math.min(end, origin + ((long) chunks.length << CHUNK_SHIFT) - 1);
+            if (end < start) return;
+            if (sealed) chunks = chunks.clone();
+        }
+
+        int word = room >>> 6;
+        long bit = 1L << room;
+        long[][] chunk = null;
+        int chunkAt = -1;
+        for (long d = start; d <= end; d++) {
+            if (keep != null && keep.get((int) (d - start))) continue;
+            long off = d - origin;
+            int ci = (int) (off >> CHUNK_SHIFT);
+            if (ci != chunkAt) {
+                chunkAt = ci;
+                chunk = chunks[ci];
+                if (chunk == null) {
+                    if (!occupied) {
+                        d = origin + ((long) (ci + 1) << CHUNK_SHIFT) - 1; // nothing taken in this chunk
+                        continue;
+                    }
+                    chunk = new long[CHUNK_NIGHTS][];
+                } else if (sealed) {
+                    chunk = chunk.clone();
+                }
+                chunks[ci] = chunk;
+            }
+            int ni = (int) off & (CHUNK_NIGHTS - 1);
+            long[] night = chunk[ni];
+            if (occupied) {
+                if (night == null) night = new long[words];
+                else if ((night[word] & bit) != 0) continue;
+                else if (sealed) night = night.clone();
+                night[word] |= bit;
+            } else {
+                if (night == null || (night[word] & bit) == 0) continue;
+                if (sealed) night = night.clone();
+                night[word] &= ~bit;
+            }
+            chunk[ni] = night;
+        }
+        current = new Snapshot(s.version + 1, origin, chunks);
+    }
+
+    // single-query conveniences over the current snapshot
+
+    public boolean isRoomFree(String roomId, long start, long end) {
+        return current.isRoomFree(roomId, start, end);
+    }
+
+    public List<Room> freeRooms(String category, LocalDate startInclusive, LocalDate endInclusive) {
+        return current.freeRooms(category, startInclusive, endInclusive);
+    }
+
+    public void freeRooms(String category, long start, long end, List<Room> out) {
+        current.freeRooms(category, start, end, out);
+    }
+
+    public int[] occupancyPerNight(String category, LocalDate from, int days) {
+        return current.occupancyPerNight(category, from, days);
+    }
+
+    public int roomCount(String category) {
+        long[] mask = mask(category);
+        if (mask == null) return 0;
+        int n = 0;
+        for (long w : mask) n += Long.bitCount(w);
+        return n;
+    }
+
+    private long[] mask(String category) {
+        return category.equalsIgnoreCase("ALL") ? allRooms : categoryMasks.get(category);
+    }
+
+    private static void setBit(long[] bits, int i) {
+        bits[i >>> 6] |= 1L << i;
+    }
+}
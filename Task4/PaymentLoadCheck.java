@@ -0,0 +1,44 @@
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+// Pushes a burst of reservations through the payment pipeline against a slow, flaky simulated
+// gateway and reports settled bookings per second.
+// Usage: java PaymentLoadCheck [bookings] [baseLatencyMs] [meanExtraLatencyMs] [stallRate]
+public class PaymentLoadCheck {
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        long baseLatency = args.length > 1 ? Long.parseLong(args[1]) : 150;
+        long extraLatency = args.length > 2 ? Long.parseLong(args[2]) : 100;
+        double stallRate = args.length > 3 ? Double.parseDouble(args[3]) : 0.02;
+        PaymentSimulator.configure(0.85, baseLatency, extraLatency, stallRate, 10_000);
+
+        BookingEngine engine = new BookingEngine(Files.createTempDirectory("payment-load"));
+        List<Room> rooms = new ArrayList<>();
+        for (int i = 0; i < 500; i++) rooms.add(new Room("P" + i, "Standard", 1500));
+        engine.setRooms(rooms);
+        PaymentPipeline pipeline = new PaymentPipeline(engine, 1000, 3, 100, 5000);
+
+        LocalDate base = LocalDate.of(2030, 1, 1);
+        List<CompletableFuture<Boolean>> results = new ArrayList<>();
+        long t0 = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            LocalDate start = base.plusDays(i / rooms.size());
+            Booking b = Booking.createNew(rooms.get(i % rooms.size()).getId(), "Guest " + i, "000", start, start, 1500);
+            if (engine.reserve(b)) results.add(pipeline.submit(b));
+        }
+        CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0])).join();
+        long nanos = System.nanoTime() - t0;
+        pipeline.shutdown(0);
+
+        System.out.println("Settled " + results.size() + " bookings in " + nanos / 1_000_000 + " ms ("
+                + (long) (results.size() * 1e9 / nanos) + " bookings/sec)");
+        System.out.println("Confirmed: " + pipeline.getConfirmed() + ", failed: " + pipeline.getFailed()
+                + ", hold expired: " + pipeline.getExpired() + ", attempt timeouts: " + pipeline.getTimeouts());
+        System.out.println("Still pending: " + engine.getPendingBookings().size());
+        // one idempotency key per booking: never more charges than bookings, however many retries
+        System.out.println("Gateway charges: " + (HotelMetrics.PAYMENT_APPROVED.sum() + HotelMetrics.PAYMENT_DECLINED.sum())
+                + " for " + results.size() + " bookings");
+    }
+}
@@ -0,0 +1,134 @@
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Runs payments off the caller's thread. A reserved booking stays PENDING_PAYMENT while its
+// attempts run; each attempt has a timeout, timeouts and errors are retried after a backoff,
+// and its hold (BookingEngine.renewHold) settles the booking as PAYMENT_FAILED if nothing has
+// completed it by then. Every attempt carries the booking ID as its idempotency key and a
+// timed-out attempt is interrupted before the retry, so a retry can never charge twice; a
+// decline is final, since the same key would only repeat it.
+// Settings come from system properties (payment.timeoutMs, payment.attempts,
+// payment.backoffMs, payment.holdMs) when built with fromSystemProperties.
+public class PaymentPipeline {
+    private final BookingEngine engine;
+    private final ExecutorService executor = newPaymentExecutor();
+    private final long attemptTimeoutMillis;
+    private final int maxAttempts;
+    private final long retryBackoffMillis;
+    private final long holdMillis;
+
+    private final AtomicLong confirmed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+
+    // set by shutdown: no new payments or retries start, so the executor is idle once inFlight drains
+    private volatile boolean stopping;
+    private final Set<CompletableFuture<Boolean>> inFlight = ConcurrentHashMap.newKeySet();
+
+    public PaymentPipeline(BookingEngine engine, long attemptTimeoutMillis, int maxAttempts,
+                           long retryBackoffMillis, long holdMillis) {
+        this.engine = engine;
+        this.attemptTimeoutMillis = attemptTimeoutMillis;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoffMillis = retryBackoffMillis;
+        this.holdMillis = holdMillis;
+    }
+
+    public static PaymentPipeline fromSystemProperties(BookingEngine engine) {
+        return new PaymentPipeline(engine,
+                Long.getLong("payment.timeoutMs", 2000),
+                Integer.getInteger("payment.attempts", 3),
+                Long.getLong("payment.backoffMs", 200),
+                Long.getLong("payment.holdMs", 15000));
+    }
+
+    static ExecutorService newPaymentExecutor() {
+        return newTaskExecutor("payment");
+    }
+
+    // virtual threads where the runtime has them (JDK 21+), a cached daemon pool otherwise
+    static ExecutorService newTaskExecutor(String threadName) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, threadName);
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    // b must already be reserved; completes with true once the booking is BOOKED, and with
+    // false straight away if its reservation has already been released or the pipeline is stopping
+    public CompletableFuture<Boolean> submit(Booking b) {
+        Runnable expire = () -> {
+            if (engine.completePayment(b, false)) expired.incrementAndGet();
+        };
+        if (stopping) {
+            expire.run();
+            return CompletableFuture.completedFuture(false);
+        }
+        if (!engine.renewHold(b, holdMillis, expire)) return CompletableFuture.completedFuture(false);
+        CompletableFuture<Boolean> result = attempt(b, 1).thenApply(paid -> {
+            if (!engine.completePayment(b, paid)) return b.getStatus().equals("BOOKED");
+            (paid ? confirmed : failed).incrementAndGet();
+            return paid;
+        });
+        inFlight.add(result);
+        result.whenComplete((paid, error) -> inFlight.remove(result));
+        return result;
+    }
+
+    private CompletableFuture<Boolean> attempt(Booking b, int n) {
+        CompletableFuture<Boolean> call = new CompletableFuture<>();
+        Future<?> running = executor.submit(() -> {
+            try {
+                call.complete(PaymentSimulator.processPayment(b.getBookingId(), b.getTotalPrice()));
+            } catch (RuntimeException e) {
+                call.completeExceptionally(e);
+            }
+        });
+        return call.orTimeout(attemptTimeoutMillis, TimeUnit.MILLISECONDS)
+                .handle((paid, error) -> {
+                    if (error == null) return paid;
+                    // stop the abandoned call; the shared idempotency key covers one that already charged
+                    running.cancel(true);
+                    timeouts.incrementAndGet();
+                    return null;
+                })
+                .thenCompose(paid -> {
+                    if (paid != null || n >= maxAttempts || stopping || !b.getStatus().equals("PENDING_PAYMENT")) {
+                        return CompletableFuture.completedFuture(paid != null && paid);
+                    }
+                    // the backoff waits on the JDK's delay thread, so the executor only ever runs attempts
+                    Executor later = CompletableFuture.delayedExecutor(retryBackoffMillis, TimeUnit.MILLISECONDS);
+                    return CompletableFuture.supplyAsync(() -> null, later)
+                            .thenCompose(x -> stopping ? CompletableFuture.completedFuture(false) : attempt(b, n + 1));
+                });
+    }
+
+    public long getConfirmed() { return confirmed.get(); }
+    public long getFailed() { return failed.get(); }
+    public long getExpired() { return expired.get(); }
+    public long getTimeouts() { return timeouts.get(); }
+
+    // stops new payments and retries, waits for the attempts in flight, then expires whatever
+    // is still pending; a retry waiting out its backoff settles as failed rather than starting
+    public void shutdown(long waitMillis) {
+        stopping = true;
+        try {
+            CompletableFuture.allOf(inFlight.toArray(new CompletableFuture<?>[0])).get(waitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            // whatever has not settled by now is expired below
+        }
+        executor.shutdown();
+        for (Booking b : engine.getPendingBookings()) {
+            if (engine.completePayment(b, false)) expired.incrementAndGet();
+        }
+    }
+}
@@ -1,8 +1,70 @@
-import java.util.Random;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Gateway stand-in. By default it answers instantly and approves 85% of payments; latency and
+// failure behaviour can be tuned to load-test the payment pipeline:
+//   latency = baseLatencyMillis + exponential(meanExtraLatencyMillis)
+//   stallRate = share of calls that hang for stallMillis (a gateway that stops answering)
+// Like a real gateway it dedupes on the idempotency key: once a key has been charged, later calls
+// with it return that outcome without charging again. An interrupted call charges nothing.
 public class PaymentSimulator {
-    private static final Random rnd = new Random();
-    public static boolean processPayment(double amount) {
+    private static final int REMEMBERED_KEYS = 100_000;
+    private static volatile double successRate = 0.85;
+    private static volatile long baseLatencyMillis = 0;
+    private static volatile long meanExtraLatencyMillis = 0;
+    private static volatile double stallRate = 0;
+    private static volatile long stallMillis = 30_000;
+    // idempotency key -> outcome of its charge, oldest forgotten first
+    private static final Map<String, Boolean> outcomes = new LinkedHashMap<String, Boolean>() {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > REMEMBERED_KEYS;
+        }
+    };
+
+    public static void configure(double successRate, long baseLatencyMillis, long meanExtraLatencyMillis,
+                                 double stallRate, long stallMillis) {
+        PaymentSimulator.successRate = successRate;
+        PaymentSimulator.baseLatencyMillis = baseLatencyMillis;
+        PaymentSimulator.meanExtraLatencyMillis = meanExtraLatencyMillis;
+        PaymentSimulator.stallRate = stallRate;
+        PaymentSimulator.stallMillis = stallMillis;
+    }
+
+    public static boolean processPayment(String idempotencyKey, double amount) {
+        synchronized (outcomes) {
+            Boolean earlier = outcomes.get(idempotencyKey);
+            if (earlier != null) return earlier;
+        }
+        long t0 = System.nanoTime();
+        boolean approved = charge(amount);
+        if (Thread.currentThread().isInterrupted()) return false;
+        synchronized (outcomes) {
+            // a concurrent call with the same key charged first: that charge stands
+            Boolean first = outcomes.putIfAbsent(idempotencyKey, approved);
+            if (first != null) return first;
+        }
+        HotelMetrics.PAYMENT.recordSince(t0);
+        (approved ? HotelMetrics.PAYMENT_APPROVED : HotelMetrics.PAYMENT_DECLINED).increment();
+        return approved;
+    }
+
+    private static boolean charge(double amount) {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        long latency = baseLatencyMillis;
+        if (meanExtraLatencyMillis > 0) latency += (long) (-meanExtraLatencyMillis * Math.log(1 - rnd.nextDouble()));
+        if (stallRate > 0 && rnd.nextDouble() < stallRate) latency = stallMillis;
+        if (latency > 0) {
+            try {
+                Thread.sleep(latency);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
         double probability = rnd.nextDouble();
-        return probability < 0.85;
+        return probability < successRate;
     }
 }
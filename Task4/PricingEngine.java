@@ -0,0 +1,137 @@
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Per-night room rates: a room's base rate scaled by season (month), weekday (Friday and
+// Saturday nights) and how full its category is that night. Money is fixed-point paise
+// (hundredths of a rupee) and rate factors are basis points (10000 = the base rate).
+//
+// For each category the factors are worked out a 64-night block at a time and cached as prefix
+// sums, so a stay of any length costs one subtraction per block it touches. A booking change
+// drops the cached blocks of that category that overlap the changed nights. Quotes are limited
+// to BookingEngine's stay window, and blocks that drift out of it are evicted, so a category
+// never caches more than the window's worth of blocks.
+public class PricingEngine {
+    private static final int BLOCK = 64;
+    private static final long ONE = 10_000;
+    // Jan..Dec
+    private static final long[] SEASON_BP = {11000, 10000, 10000, 10500, 11000, 11500, 11500, 11000, 9500, 10000, 10500, 12500};
+    private static final long WEEKEND_BP = 11500;
+    private static final long LOW_OCCUPANCY_BP = 9500;
+    private static final long HIGH_OCCUPANCY_BP = 11000;
+    private static final long FULL_OCCUPANCY_BP = 12500;
+    // blocks a quote inside the stay window can touch, plus the partial blocks at either end
+    private static final int MAX_BLOCKS = (2 * BookingEngine.STAY_WINDOW_DAYS + BookingEngine.MAX_STAY_NIGHTS) / BLOCK + 3;
+
+    private final BookingEngine engine;
+    private final Map<String, Rates> byCategory = new ConcurrentHashMap<>();
+
+    private static class Rates {
+        // block number -> prefix sums of the block's factors, BLOCK + 1 entries
+        final Map<Long, long[]> blocks = new ConcurrentHashMap<>();
+        // bumped on every invalidation so a block computed against older occupancy is not cached
+        final AtomicLong version = new AtomicLong();
+    }
+
+    public PricingEngine(BookingEngine engine) {
+        this.engine = engine;
+    }
+
+    public static long toPaise(double rupees) {
+        return Math.round(rupees * 100);
+    }
+
+    public static double toRupees(long paise) {
+        return paise / 100.0;
+    }
+
+    // Total for the nights [start, endExclusive), at least one night, in paise. The factors are
+    // summed first and the stay is rounded once, not night by night.
+    // Throws IllegalArgumentException for stays BookingEngine.checkStay refuses.
+    public long quote(Room r, long startDay, long endExclusiveDay) {
+        if (endExclusiveDay <= startDay) endExclusiveDay = startDay + 1;
+        String invalid = BookingEngine.checkStay(startDay, endExclusiveDay - 1);
+        if (invalid != null) throw new IllegalArgumentException(invalid);
+        long factors = sumFactors(r.getCategory(), startDay, endExclusiveDay);
+        return (toPaise(r.getPricePerNight()) * factors + ONE / 2) / ONE;
+    }
+
+    public long quote(Room r, LocalDate start, LocalDate endExclusive) {
+        return quote(r, start.toEpochDay(), endExclusive.toEpochDay());
+    }
+
+    // the rate for one night, in paise
+    public long nightlyRate(Room r, LocalDate night) {
+        return quote(r, night.toEpochDay(), night.toEpochDay() + 1);
+    }
+
+    // sum of the category's factors for [startDay, endExclusiveDay)
+    long sumFactors(String category, long startDay, long endExclusiveDay) {
+        Rates rates = byCategory.computeIfAbsent(category, k -> new Rates());
+        long sum = 0;
+        for (long d = startDay; d < endExclusiveDay; ) {
+            long block = Math.floorDiv(d, BLOCK);
+            long blockStart = block * BLOCK;
+            long to = Math.min(endExclusiveDay, blockStart + BLOCK);
+            long[] prefix = rates.blocks.get(block);
+            if (prefix == null) prefix = computeBlock(category, rates, block);
+            sum += prefix[(int) (to - blockStart)] - prefix[(int) (d - blockStart)];
+            d = to;
+        }
+        return sum;
+    }
+
+    // drops cached rates for a category's nights [startDay, endDay]
+    public void invalidate(String category, long startDay, long endDay) {
+        Rates rates = byCategory.get(category);
+        if (rates == null) return;
+        rates.version.incrementAndGet();
+        for (long b = Math.floorDiv(startDay, BLOCK); b <= Math.floorDiv(endDay, BLOCK); b++) rates.blocks.remove(b);
+    }
+
+    public void invalidateAll() {
+        for (Rates rates : byCategory.values()) {
+            rates.version.incrementAndGet();
+            rates.blocks.clear();
+        }
+    }
+
+    private long[] computeBlock(String category, Rates rates, long block) {
+        long version = rates.version.get();
+        LocalDate first = LocalDate.ofEpochDay(block * BLOCK);
+        int rooms = engine.roomCount(category);
+        int[] occupied = engine.occupancyPerNight(category, first, BLOCK);
+        long[] prefix = new long[BLOCK + 1];
+        for (int i = 0; i < BLOCK; i++) {
+            prefix[i + 1] = prefix[i] + factor(first.plusDays(i), occupied[i], rooms);
+        }
+        // invalidate bumps the version before removing, so either it removes this entry or we see the bump
+        rates.blocks.putIfAbsent(block, prefix);
+        if (rates.version.get() != version) rates.blocks.remove(block, prefix);
+        if (rates.blocks.size() > MAX_BLOCKS) evictOutsideWindow(rates);
+        return prefix;
+    }
+
+    // drops blocks no quote can reach any more, as today moves on
+    private static void evictOutsideWindow(Rates rates) {
+        long today = System.currentTimeMillis() / 86_400_000L;
+        long first = Math.floorDiv(today - BookingEngine.STAY_WINDOW_DAYS, BLOCK);
+        long last = Math.floorDiv(today + BookingEngine.STAY_WINDOW_DAYS + BookingEngine.MAX_STAY_NIGHTS, BLOCK);
+        rates.blocks.keySet().removeIf(b -> b < first || b > last);
+    }
+
+    static long factor(LocalDate night, int occupied, int rooms) {
+        long bp = SEASON_BP[night.getMonthValue() - 1];
+        DayOfWeek dow = night.getDayOfWeek();
+        if (dow == DayOfWeek.FRIDAY || dow == DayOfWeek.SATURDAY) bp = bp * WEEKEND_BP / ONE;
+        if (rooms > 0) {
+            int percent = occupied * 100 / rooms;
+            if (percent >= 90) bp = bp * FULL_OCCUPANCY_BP / ONE;
+            else if (percent >= 70) bp = bp * HIGH_OCCUPANCY_BP / ONE;
+            else if (percent < 30) bp = bp * LOW_OCCUPANCY_BP / ONE;
+        }
+        return bp;
+    }
+}
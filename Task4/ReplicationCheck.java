@@ -0,0 +1,96 @@
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+
+// Runs concurrent bookings and cancellations on one engine while a BookingReplica follows it
+// over a loopback ReplicationServer, then waits for the replica to catch up and verifies that
+// it holds every recorded booking exactly as the primary does and answers a name search with
+// the same rows. Part of the history is written before the replica connects, so the snapshot
+// path is covered as well as the change stream. A small -Dreplication.queue forces resyncs.
+// Exits non-zero on any difference.
+// Usage: java [-Dreplication.queue=N] ReplicationCheck [threads] [operationsPerThread] [rooms]
+public class ReplicationCheck {
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int operations = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+        int roomCount = args.length > 2 ? Integer.parseInt(args[2]) : 300;
+
+        BookingEngine engine = new BookingEngine(Files.createTempDirectory("replication-check"));
+        List<Room> rooms = new ArrayList<>();
+        String[] categories = {"Standard", "Deluxe", "Suite"};
+        for (int i = 0; i < roomCount; i++) rooms.add(new Room("R" + i, categories[i % 3], 1500));
+        engine.setRooms(rooms);
+        // history the replica has to take from the snapshot
+        work(engine, rooms, operations / 4);
+
+        ReplicationServer server = new ReplicationServer(engine, 0);
+        server.start();
+        BookingReplica replica = new BookingReplica("127.0.0.1", server.getPort());
+        replica.start();
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        long t0 = System.nanoTime();
+        for (int t = 0; t < threads; t++) futures.add(pool.submit(() -> work(engine, rooms, operations)));
+        for (Future<?> f : futures) f.get();
+        long nanos = System.nanoTime() - t0;
+        pool.shutdown();
+        long lastSeq = engine.getChangeFeed().currentSeq();
+        System.out.println("Operations: " + threads * operations + " in " + nanos / 1_000_000 + " ms, "
+                + lastSeq + " changes published");
+
+        long deadline = System.currentTimeMillis() + 30_000;
+        while ((!replica.isConnected() || replica.getAppliedSeq() < lastSeq) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        System.out.println(replica.status());
+
+        int differences = 0;
+        BookingReplica.Store store = replica.getStore();
+        List<Booking> recorded = engine.getBookings();
+        if (store.size() != recorded.size()) {
+            System.out.println("Replica holds " + store.size() + " bookings, primary " + recorded.size());
+            differences++;
+        }
+        for (Booking b : recorded) {
+            Booking copy = store.find(b.getBookingId());
+            if (copy == null || !copy.toCSV().equals(b.toCSV())) {
+                if (differences++ < 5) System.out.println("Differs: " + b.toCSV() + " / " + (copy == null ? null : copy.toCSV()));
+            }
+        }
+        BookingFilter byName = new BookingFilter("", "", "", "guest 1", null, null);
+        int onPrimary = engine.findBookings(byName, new int[1], Integer.MAX_VALUE).size();
+        int onReplica = store.findBookings(byName, new int[1], Integer.MAX_VALUE).size();
+        if (onPrimary != onReplica) {
+            System.out.println("Name search: primary " + onPrimary + " rows, replica " + onReplica);
+            differences++;
+        }
+        replica.stop();
+        server.stop();
+
+        System.out.println("Differences: " + differences);
+        if (differences > 0) System.exit(1);
+    }
+
+    // random 1-4 night stays over the next five years, paid or failed, and every tenth op a cancel
+    private static void work(BookingEngine engine, List<Room> rooms, int operations) {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        LocalDate today = LocalDate.now();
+        List<Booking> mine = new ArrayList<>();
+        for (int i = 0; i < operations; i++) {
+            if (!mine.isEmpty() && rnd.nextInt(10) == 0) {
+                engine.cancel(mine.remove(rnd.nextInt(mine.size())));
+                continue;
+            }
+            Room room = rooms.get(rnd.nextInt(rooms.size()));
+            LocalDate start = today.plusDays(1 + rnd.nextInt(1800));
+            Booking b = Booking.createNew(room.getId(), "Guest " + rnd.nextInt(1000), "99", start,
+                    start.plusDays(rnd.nextInt(4)), 1500);
+            if (!engine.reserve(b)) continue;
+            engine.completePayment(b, rnd.nextInt(10) != 0);
+            Booking recorded = engine.findBookingById(b.getBookingId());
+            if (recorded != null) mine.add(recorded);
+        }
+    }
+}
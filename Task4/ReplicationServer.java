@@ -0,0 +1,102 @@
+import java.io.*;
+import java.net.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Serves the engine's change feed to read replicas on a loopback socket. A replica that connects
+// gets the room list and a snapshot of the recorded bookings, then every change after it:
+//   ROOM,<room csv>            one per room
+//   SNAPSHOT,<n>               followed by n booking csv lines
+//   SYNC,<seq>,<micros>        the snapshot includes every change up to seq
+//   C,... / S,...              changes, see ChangeFeed
+//   H,<seq>,<micros>           heartbeat while idle: the newest change published so far
+//   RESYNC                     the replica fell a whole queue behind; reconnect for a new snapshot
+// Each connection has its own thread and a queue of -Dreplication.queue changes (default 16384).
+// Usage: java -Dreplication.port=7070 HotelBookingSystem, then java BookingReplica 7070
+public class ReplicationServer {
+    private static final long HEARTBEAT_MILLIS = 200;
+
+    private final BookingEngine engine;
+    private final ServerSocket server;
+    private final int queueCapacity = Integer.getInteger("replication.queue", 16384);
+    private final List<Socket> clients = new CopyOnWriteArrayList<>();
+    private volatile boolean stopped;
+
+    public ReplicationServer(BookingEngine engine, int port) throws IOException {
+        this.engine = engine;
+        this.server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+    }
+
+    public void start() {
+        Thread t = new Thread(this::acceptLoop, "replication-accept");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    public int getPort() {
+        return server.getLocalPort();
+    }
+
+    public void stop() {
+        stopped = true;
+        try {
+            server.close();
+            for (Socket s : clients) s.close();
+        } catch (IOException e) {
+            System.out.println("Failed to stop replication: " + e.getMessage());
+        }
+    }
+
+    private void acceptLoop() {
+        while (!stopped) {
+            try {
+                Socket s = server.accept();
+                clients.add(s);
+                Thread t = new Thread(() -> serve(s), "replication-" + s.getPort());
+                t.setDaemon(true);
+                t.start();
+            } catch (IOException e) {
+                if (!stopped) System.out.println("Failed to accept replica: " + e.getMessage());
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        ChangeFeed.Subscriber sub = null;
+        try (Socket s = socket;
+             Writer w = new BufferedWriter(new OutputStreamWriter(s.getOutputStream(), StandardCharsets.UTF_8), 1 << 16)) {
+            s.setTcpNoDelay(true);
+            sub = engine.subscribeChanges(queueCapacity);
+            for (Room r : engine.getRooms()) w.write("ROOM," + r.toCSV() + "\n");
+            w.write("SNAPSHOT," + sub.getSnapshotRows() + "\n");
+            engine.writeSnapshot(sub.getSnapshotRows(), w);
+            w.write("SYNC," + sub.getStartSeq() + "," + ChangeFeed.nowMicros() + "\n");
+            w.flush();
+            while (!stopped && !sub.isDropped()) {
+                String event = sub.poll(HEARTBEAT_MILLIS);
+                if (event == null) {
+                    w.write("H," + engine.getChangeFeed().currentSeq() + "," + ChangeFeed.nowMicros() + "\n");
+                } else {
+                    // send whatever else is queued before one flush
+                    do {
+                        w.write(event);
+                        w.write('\n');
+                    } while ((event = sub.poll(0)) != null);
+                }
+                w.flush();
+            }
+            if (sub.isDropped()) {
+                w.write("RESYNC\n");
+                w.flush();
+            }
+        } catch (IOException e) {
+            // replica went away
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (sub != null) engine.unsubscribeChanges(sub);
+            clients.remove(socket);
+        }
+    }
+}
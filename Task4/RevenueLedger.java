@@ -0,0 +1,151 @@
+import java.util.*;
+
+// Revenue and sold room-nights per category per night, kept up to date as bookings become or
+// stop being BOOKED rather than summed from the bookings on every report. A stay's price is
+// spread evenly over its nights in paise, with the odd paise on the first nights. Range totals
+// come from per-category prefix sums, rebuilt on the first query after a change, so a report
+// over any range costs two lookups per category.
+public class RevenueLedger {
+    private static final int GROW_DAYS = 64;
+
+    private final Map<String, Series> byCategory = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+    // totals over a range of nights
+    public static class Totals {
+        private final long revenuePaise;
+        private final long roomNights;
+
+        Totals(long revenuePaise, long roomNights) {
+            this.revenuePaise = revenuePaise;
+            this.roomNights = roomNights;
+        }
+
+        public long getRevenuePaise() { return revenuePaise; }
+        public long getRoomNights() { return roomNights; }
+
+        // average daily rate: revenue per sold room-night, in paise
+        public long getAdrPaise() {
+            return roomNights == 0 ? 0 : Math.round((double) revenuePaise / roomNights);
+        }
+    }
+
+    private static class Series {
+        long origin;
+        long[] revenue = new long[0];
+        long[] nights = new long[0];
+        // prefix[i] = sum of the first i days; null until needed after a change
+        long[] revenuePrefix;
+        long[] nightsPrefix;
+
+        void ensureCovers(long start, long end) {
+            if (revenue.length == 0) {
+                origin = Math.floorDiv(start, GROW_DAYS) * GROW_DAYS;
+            } else if (start < origin) {
+                long newOrigin = Math.floorDiv(start, GROW_DAYS) * GROW_DAYS;
+                int shift = (int) (origin - newOrigin);
+                revenue = shifted(revenue, shift);
+                nights = shifted(nights, shift);
+                origin = newOrigin;
+            }
+            long needed = end - origin + 1;
+            if (needed > revenue.length) {
+                long size = Math.max(needed, revenue.length * 2L);
+                int length = (int) ((size + GROW_DAYS - 1) / GROW_DAYS * GROW_DAYS);
+                revenue = Arrays.copyOf(revenue, length);
+                nights = Arrays.copyOf(nights, length);
+            }
+        }
+
+        private static long[] shifted(long[] a, int shift) {
+            long[] grown = new long[a.length + shift];
+            System.arraycopy(a, 0, grown, shift, a.length);
+            return grown;
+        }
+
+        Totals totals(long start, long end) {
+            if (revenuePrefix == null) {
+                revenuePrefix = new long[revenue.length + 1];
+                nightsPrefix = new long[nights.length + 1];
+                for (int i = 0; i < revenue.length; i++) {
+                    revenuePrefix[i + 1] = revenuePrefix[i] + revenue[i];
+                    nightsPrefix[i + 1] = nightsPrefix[i] + nights[i];
+                }
+            }
+            int from = (int) Math.max(0, Math.min(revenue.length, start - origin));
+            int to = (int) Math.max(0, Math.min(revenue.length, end - origin + 1));
+            if (to <= from) return new Totals(0, 0);
+            return new Totals(revenuePrefix[to] - revenuePrefix[from], nightsPrefix[to] - nightsPrefix[from]);
+        }
+    }
+
+    // a stay of nights [start, end] that became BOOKED
+    public void add(String category, long start, long end, long pricePaise) {
+        apply(category, start, end, pricePaise, 1);
+    }
+
+    // a stay that stopped being BOOKED
+    public void remove(String category, long start, long end, long pricePaise) {
+        apply(category, start, end, pricePaise, -1);
+    }
+
+    private synchronized void apply(String category, long start, long end, long pricePaise, int sign) {
+        if (end < start) return;
+        Series s = byCategory.computeIfAbsent(category, k -> new Series());
+        s.ensureCovers(start, end);
+        long n = end - start + 1;
+        long perNight = pricePaise / n;
+        long extra = pricePaise % n;
+        for (long d = start; d <= end; d++) {
+            int i = (int) (d - s.origin);
+            s.revenue[i] += sign * (perNight + (d - start < extra ? 1 : 0));
+            s.nights[i] += sign;
+        }
+        s.revenuePrefix = null;
+        s.nightsPrefix = null;
+    }
+
+    // totals already spread over nights, e.g. from an archive summary
+    public synchronized void addNight(String category, long day, long revenuePaise, long roomNights) {
+        Series s = byCategory.computeIfAbsent(category, k -> new Series());
+        s.ensureCovers(day, day);
+        s.revenue[(int) (day - s.origin)] += revenuePaise;
+        s.nights[(int) (day - s.origin)] += roomNights;
+        s.revenuePrefix = null;
+        s.nightsPrefix = null;
+    }
+
+    // every night with something sold, by category then night
+    public synchronized void forEachNight(BookingArchive.NightVisitor visitor) {
+        for (Map.Entry<String, Series> e : byCategory.entrySet()) {
+            Series s = e.getValue();
+            for (int i = 0; i < s.revenue.length; i++) {
+                if (s.revenue[i] != 0 || s.nights[i] != 0) visitor.visit(e.getKey(), s.origin + i, s.revenue[i], s.nights[i]);
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        byCategory.clear();
+    }
+
+    // revenue and room-nights of the category (or ALL) over nights [start, end]
+    public synchronized Totals totals(String category, long start, long end) {
+        if (!category.equalsIgnoreCase("ALL")) {
+            Series s = byCategory.get(category);
+            return s == null ? new Totals(0, 0) : s.totals(start, end);
+        }
+        long revenue = 0;
+        long nights = 0;
+        for (Series s : byCategory.values()) {
+            Totals t = s.totals(start, end);
+            revenue += t.revenuePaise;
+            nights += t.roomNights;
+        }
+        return new Totals(revenue, nights);
+    }
+
+    // categories with any BOOKED stay, in name order
+    public synchronized List<String> categories() {
+        return new ArrayList<>(byCategory.keySet());
+    }
+}
@@ -0,0 +1,235 @@
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Bounded LRU cache of availability results keyed by (category, first night, last night).
+// Entries are checked against occupancy versions instead of being flushed wholesale: every
+// occupancy change takes the next version number and stamps it on the changed nights of the
+// room's category (and of ALL). An entry stays valid while none of its nights carries a stamp
+// newer than the version it was computed at, so a booking in one category or date range leaves
+// every other cached search alone. A search takes its version before it reads the calendar and
+// a change stamps only after the calendar is updated, so a result is never newer than its
+// stamp says and a write is never followed by a stale hit.
+// The LRU is split into segments with their own locks so concurrent searches rarely meet.
+public class SearchCache implements SearchCacheMBean {
+    private static final int SEGMENTS = 16;
+    private static final int GROW_DAYS = 64;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final AtomicLong version = new AtomicLong();
+    // category (or ALL), ignoring case -> per-night stamps
+    private final Map<String, Stamps> stamps = new ConcurrentSkipListMap<>(String.CASE_INSENSITIVE_ORDER);
+    // entries computed before this version are void (rooms replaced)
+    private volatile long floor;
+    private final boolean enabled;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder stale = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    // category compared ignoring case, like the calendar's category lookup
+    private static class Key {
+        final String category;
+        final long start;
+        final long end;
+        final int hash;
+
+        Key(String category, long start, long end) {
+            this.category = category;
+            this.start = start;
+            this.end = end;
+            int h = 0;
+            for (int i = 0; i < category.length(); i++) h = h * 31 + Character.toLowerCase(category.charAt(i));
+            this.hash = (h * 31 + Long.hashCode(start)) * 31 + Long.hashCode(end);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key k = (Key) o;
+            return start == k.start && end == k.end && category.equalsIgnoreCase(k.category);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static class Entry {
+        final List<Room> rooms;
+        final long version;
+
+        Entry(List<Room> rooms, long version) {
+            this.rooms = rooms;
+            this.version = version;
+        }
+    }
+
+    private class Segment extends LinkedHashMap<Key, Entry> {
+        private static final long serialVersionUID = 1L;
+        private final int capacity;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+            if (size() <= capacity) return false;
+            evictions.increment();
+            return true;
+        }
+    }
+
+    // newest change version per night; origin and array are swapped together when they grow
+    private static class Stamps {
+        volatile Window window = new Window(0, new AtomicLongArray(0));
+
+        // newest stamp on nights [start, end]; 0 where nothing has changed
+        long newest(long start, long end) {
+            Window w = window;
+            long from = Math.max(start, w.origin);
+            long to = Math.min(end, w.origin + w.nights.length() - 1);
+            long newest = 0;
+            for (long d = from; d <= to; d++) newest = Math.max(newest, w.nights.get((int) (d - w.origin)));
+            return newest;
+        }
+
+        synchronized void stamp(long start, long end, long v) {
+            Window w = window;
+            if (w.nights.length() == 0 || start < w.origin || end >= w.origin + w.nights.length()) {
+                long origin = w.nights.length() == 0 ? Math.floorDiv(start, GROW_DAYS) * GROW_DAYS
+                        : Math.min(w.origin, Math.floorDiv(start, GROW_DAYS) * GROW_DAYS);
+                long last = Math.max(end, w.origin + w.nights.length() - 1);
+                long length = Math.max(last - origin + 1, w.nights.length() * 2L);
+                AtomicLongArray grown = new AtomicLongArray((int) ((length + GROW_DAYS - 1) / GROW_DAYS * GROW_DAYS));
+                for (int i = 0; i < w.nights.length(); i++) {
+                    grown.accumulateAndGet((int) (w.origin - origin) + i, w.nights.get(i), Math::max);
+                }
+                w = new Window(origin, grown);
+                window = w;
+            }
+            // versions are taken before this lock, so an older one can arrive after a newer one
+            for (long d = start; d <= end; d++) w.nights.accumulateAndGet((int) (d - w.origin), v, Math::max);
+        }
+    }
+
+    private static class Window {
+        final long origin;
+        final AtomicLongArray nights;
+
+        Window(long origin, AtomicLongArray nights) {
+            this.origin = origin;
+            this.nights = nights;
+        }
+    }
+
+    // a capacity of 0 turns the cache off: every get misses and nothing is kept
+    public SearchCache(int capacity) {
+        this.enabled = capacity > 0;
+        int perSegment = Math.max(1, capacity / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) segments[i] = new Segment(perSegment);
+    }
+
+    // the version to hand to put() for a result about to be computed; take it before reading
+    public long currentVersion() {
+        return version.get();
+    }
+
+    // a valid cached result, or null
+    public List<Room> get(String category, long start, long end) {
+        if (!enabled) {
+            misses.increment();
+            return null;
+        }
+        Key key = new Key(category, start, end);
+        Segment s = segmentOf(key);
+        Entry e;
+        synchronized (s) {
+            e = s.get(key);
+        }
+        if (e != null && e.version >= floor && e.version >= newestStamp(key)) {
+            hits.increment();
+            return e.rooms;
+        }
+        if (e != null) {
+            stale.increment();
+            synchronized (s) {
+                s.remove(key, e);
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    // keeps a copy of `rooms`, so the caller may pass a view of its own list
+    public void put(String category, long start, long end, List<Room> rooms, long computedAt) {
+        if (!enabled) return;
+        Key key = new Key(category, start, end);
+        // a change that landed while this was computed: caching it would only be dropped again
+        if (computedAt < floor || computedAt < newestStamp(key)) return;
+        Segment s = segmentOf(key);
+        synchronized (s) {
+            s.put(key, new Entry(List.copyOf(rooms), computedAt));
+        }
+    }
+
+    // occupancy of a room in `category` changed on nights [start, end]
+    public void invalidate(String category, long start, long end) {
+        if (!enabled) return;
+        long v = version.incrementAndGet();
+        stamps.computeIfAbsent(category, k -> new Stamps()).stamp(start, end, v);
+        stamps.computeIfAbsent("ALL", k -> new Stamps()).stamp(start, end, v);
+    }
+
+    // voids every entry, e.g. when the room list is replaced
+    public void invalidateAll() {
+        floor = version.incrementAndGet();
+        for (Segment s : segments) {
+            synchronized (s) {
+                s.clear();
+            }
+        }
+    }
+
+    private long newestStamp(Key key) {
+        Stamps st = stamps.get(key.category);
+        return st == null ? 0 : st.newest(key.start, key.end);
+    }
+
+    private Segment segmentOf(Key key) {
+        int h = key.hashCode();
+        return segments[(h ^ (h >>> 16)) & (SEGMENTS - 1)];
+    }
+
+    public long getHits() { return hits.sum(); }
+    public long getMisses() { return misses.sum(); }
+    public long getStaleDrops() { return stale.sum(); }
+    public long getEvictions() { return evictions.sum(); }
+
+    public double getHitRatio() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    public int getSize() {
+        int n = 0;
+        for (Segment s : segments) {
+            synchronized (s) {
+                n += s.size();
+            }
+        }
+        return n;
+    }
+
+    public String summary() {
+        return String.format("Search cache: %d entries   hits %d   misses %d   hit ratio %.1f%%   stale drops %d   evictions %d",
+                getSize(), getHits(), getMisses(), getHitRatio() * 100, getStaleDrops(), getEvictions());
+    }
+}
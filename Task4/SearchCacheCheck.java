@@ -0,0 +1,46 @@
+import java.util.*;
+import java.util.concurrent.*;
+
+// Two writers invalidate overlapping nights of one category at the same time, round after
+// round. After each round, a search result computed at the version just before the newest
+// write must be refused: put() must not keep it and get() must not return it, whichever
+// writer happened to stamp the shared nights last. Exits non-zero on the first stale answer.
+// Usage: java SearchCacheCheck [rounds]
+public class SearchCacheCheck {
+    public static void main(String[] args) throws Exception {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+
+        SearchCache cache = new SearchCache(4096);
+        List<Room> free = Collections.singletonList(new Room("R1", "Suite", 1000));
+        CyclicBarrier start = new CyclicBarrier(3);
+        CyclicBarrier done = new CyclicBarrier(3);
+        ExecutorService writers = Executors.newFixedThreadPool(2);
+        long[][] ranges = {{10, 20}, {15, 25}};
+        for (long[] range : ranges) {
+            writers.submit(() -> {
+                for (int i = 0; i < rounds; i++) {
+                    start.await();
+                    cache.invalidate("Suite", range[0], range[1]);
+                    done.await();
+                }
+                return null;
+            });
+        }
+
+        long t0 = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            start.await();
+            done.await();
+            // both writers touched nights 15-20; the older of their two versions is stale there
+            long newest = cache.currentVersion();
+            cache.put("Suite", 15, 20, free, newest - 1);
+            if (cache.get("Suite", 15, 20) != null) {
+                System.out.println("Stale availability served in round " + (i + 1) + " (version " + (newest - 1)
+                        + " after a write at " + newest + ")");
+                System.exit(1);
+            }
+        }
+        writers.shutdown();
+        System.out.println("Rounds: " + rounds + " in " + (System.nanoTime() - t0) / 1_000_000 + " ms, no stale answers");
+    }
+}
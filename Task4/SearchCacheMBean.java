@@ -0,0 +1,9 @@
+// JMX view of an engine's availability cache, registered as hotel:type=SearchCache,name=<engine>
+public interface SearchCacheMBean {
+    long getHits();
+    long getMisses();
+    long getStaleDrops();
+    long getEvictions();
+    double getHitRatio();
+    int getSize();
+}
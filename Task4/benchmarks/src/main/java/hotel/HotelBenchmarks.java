@@ -0,0 +1,147 @@
+package hotel;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+// The booking hot paths over a synthetic hotel of `bookings` stays in bookings / 100 rooms.
+// Every operation picks its dates, rooms and guests at random, so caches see a realistic mix of
+// hits and misses. Add -prof gc for bytes allocated per operation, -bm sample for percentiles.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "-Xmx4g")
+public class HotelBenchmarks {
+    @Param({"1000", "100000", "1000000"})
+    int bookings;
+
+    HotelFixture f;
+    List<Room> rooms;
+    List<Room> free = new ArrayList<>();
+    Writer discard = Writer.nullWriter();
+    BookingFilter cancelled = new BookingFilter("CANCELLED", "", "", "", null, null);
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        f = HotelFixture.create(Math.max(1, bookings / 100), bookings);
+        rooms = f.engine.getRooms();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        f.delete();
+    }
+
+    private LocalDate randomDay(ThreadLocalRandom rnd) {
+        return f.epoch.plusDays(rnd.nextInt(f.days + 30));
+    }
+
+    private static String randomCategory(ThreadLocalRandom rnd) {
+        return HotelFixture.CATEGORIES[rnd.nextInt(HotelFixture.CATEGORIES.length)];
+    }
+
+    private static Booking pick(List<Booking> list, ThreadLocalRandom rnd) {
+        return list.get(rnd.nextInt(list.size()));
+    }
+
+    @Benchmark
+    public List<Room> findAvailableRooms() {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        LocalDate start = randomDay(rnd);
+        return f.engine.findAvailableRooms(randomCategory(rnd), start, start.plusDays(2));
+    }
+
+    // epoch-day form into a reused list
+    @Benchmark
+    public void findAvailableRoomsEpochDay(Blackhole bh) {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        long start = f.epoch.toEpochDay() + rnd.nextInt(f.days + 30);
+        free.clear();
+        f.engine.findAvailableRooms(randomCategory(rnd), start, start + 2, free);
+        for (int i = 0; i < free.size(); i++) bh.consume(free.get(i));
+    }
+
+    // a search as the CLI shows it: every free room with its price for the stay
+    @Benchmark
+    public void pricedSearch(Blackhole bh) {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        LocalDate start = randomDay(rnd);
+        for (Room r : f.engine.findAvailableRooms(randomCategory(rnd), start, start.plusDays(2))) {
+            bh.consume(f.engine.quotePaise(r, start, start.plusDays(3)));
+        }
+    }
+
+    @Benchmark
+    public long quotePaise() {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        LocalDate start = randomDay(rnd);
+        return f.engine.quotePaise(rooms.get(rnd.nextInt(rooms.size())), start, start.plusDays(1 + rnd.nextInt(14)));
+    }
+
+    @Benchmark
+    public Booking findBookingById() {
+        List<Booking> from = f.resident.isEmpty() ? f.bookings : f.resident;
+        return f.engine.findBookingById(pick(from, ThreadLocalRandom.current()).getBookingId());
+    }
+
+    // Bloom filters rule out most month segments, then one 64-row block is read
+    @Benchmark
+    public Booking findArchivedBookingById() {
+        List<Booking> from = f.archived.isEmpty() ? f.bookings : f.archived;
+        return f.engine.findBookingById(pick(from, ThreadLocalRandom.current()).getBookingId());
+    }
+
+    // the name filter skips segments without the name; the rest come from the soft cache
+    @Benchmark
+    public List<Booking> findArchivedByGuestName() {
+        List<Booking> from = f.archived.isEmpty() ? f.bookings : f.archived;
+        return f.engine.findArchivedByGuestName(pick(from, ThreadLocalRandom.current()).getGuestName());
+    }
+
+    @Benchmark
+    public List<Booking> guestNameSearch() {
+        String name = pick(f.bookings, ThreadLocalRandom.current()).getGuestName();
+        return f.engine.findByGuestName(name.substring(name.length() - 3));
+    }
+
+    @Benchmark
+    public String bookingToCsv() {
+        return pick(f.bookings, ThreadLocalRandom.current()).toCSV();
+    }
+
+    @Benchmark
+    public Booking bookingFromCsv() {
+        return Booking.fromCSV(f.csvLines.get(ThreadLocalRandom.current().nextInt(f.csvLines.size())));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int writeBookings() throws IOException {
+        return f.engine.writeBookings(discard);
+    }
+
+    @Benchmark
+    public int writeBookingsPage() throws IOException {
+        return f.engine.writeBookings(cancelled, new int[1], 20, discard);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public BookingEngine saveBookings() {
+        f.engine.saveBookings();
+        return f.engine;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public BookingEngine loadBookings() {
+        return f.loadEngine();
+    }
+}
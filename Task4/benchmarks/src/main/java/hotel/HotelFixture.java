@@ -0,0 +1,84 @@
+package hotel;
+
+import java.io.*;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.Stream;
+
+// A synthetic hotel on disk and loaded: rooms spread over three categories, back-to-back
+// 1-4 night stays per room with a share cancelled or failed. The span is centred on today, so
+// loading archives the past half like it would in production.
+class HotelFixture {
+    static final String[] CATEGORIES = {"Standard", "Deluxe", "Suite"};
+
+    Path dir;
+    BookingEngine engine;
+    List<Booking> bookings;
+    List<String> csvLines;
+    // bookings loading left resident, and those it moved to the archive
+    List<Booking> resident = new ArrayList<>();
+    List<Booking> archived = new ArrayList<>();
+    LocalDate epoch;
+    int days;
+
+    static HotelFixture create(int roomCount, int bookingCount) throws IOException {
+        HotelFixture f = new HotelFixture();
+        f.dir = Files.createTempDirectory("hotel-bench");
+        List<Room> rooms = new ArrayList<>();
+        for (int i = 0; i < roomCount; i++) {
+            rooms.add(new Room("R" + i, CATEGORIES[i % CATEGORIES.length], 1500 + 500 * (i % CATEGORIES.length)));
+        }
+        try (PrintWriter pw = new PrintWriter(new FileWriter(f.dir.resolve(BookingEngine.ROOMS_FILE).toFile()))) {
+            for (Room r : rooms) pw.println(r.toCSV());
+        }
+        Random rnd = new Random(42);
+        int[] nextFree = new int[roomCount];
+        int[] startOffset = new int[bookingCount];
+        int[] nights = new int[bookingCount];
+        for (int i = 0; i < bookingCount; i++) {
+            int room = i % roomCount;
+            nights[i] = 1 + rnd.nextInt(4);
+            startOffset[i] = nextFree[room] + rnd.nextInt(2);
+            nextFree[room] = startOffset[i] + nights[i];
+        }
+        for (int n : nextFree) f.days = Math.max(f.days, n);
+        f.epoch = LocalDate.now().minusDays(f.days / 2);
+        f.bookings = new ArrayList<>(bookingCount);
+        for (int i = 0; i < bookingCount; i++) {
+            int room = i % roomCount;
+            LocalDate start = f.epoch.plusDays(startOffset[i]);
+            int s = rnd.nextInt(20);
+            String status = s == 0 ? "CANCELLED" : s == 1 ? "PAYMENT_FAILED" : "BOOKED";
+            f.bookings.add(new Booking(UUID.randomUUID().toString(), rooms.get(room).getId(),
+                    "Guest " + Integer.toString(i, 36), "98" + (10000000 + i), start, start.plusDays(nights[i] - 1),
+                    nights[i] * rooms.get(room).getPricePerNight(), status));
+        }
+        BookingJournal.writeCsv(f.dir.resolve(BookingEngine.BOOKINGS_FILE), f.bookings);
+        f.csvLines = new ArrayList<>(bookingCount);
+        for (Booking b : f.bookings) f.csvLines.add(b.toCSV());
+        f.engine = f.loadEngine();
+        LocalDate today = LocalDate.now();
+        for (Booking b : f.bookings) (BookingArchive.isCold(b, today) ? f.archived : f.resident).add(b);
+        return f;
+    }
+
+    // the engine prints what it loaded; benchmark output has no use for it
+    BookingEngine loadEngine() {
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            BookingEngine e = new BookingEngine(dir);
+            e.load();
+            return e;
+        } finally {
+            System.setOut(out);
+        }
+    }
+
+    void delete() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path p : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) Files.delete(p);
+        }
+    }
+}